@@ -0,0 +1,39 @@
+package bossfight;
+
+import java.util.SplittableRandom;
+
+// Shared setup for the benchmarks: deterministic bullet fields spread over a
+// headless arena, so every run and every release measures the same data.
+final class BenchmarkArena {
+
+    static final int WIDTH = HeadlessRunner.ARENA_WIDTH;
+    static final int HEIGHT = HeadlessRunner.ARENA_HEIGHT;
+
+    static final long SEED = 0x5EED_B055L;
+
+    private BenchmarkArena() {
+    }
+
+    // Fills the pool with n bullets: random positions inside the arena,
+    // random directions at boss-like speeds, one in five friendly
+    static void fill(BulletPool pool, int n) {
+        SplittableRandom rnd = new SplittableRandom(SEED);
+        pool.clear();
+        for (int i = 0; i < n; i++) {
+            double angle = rnd.nextDouble(Math.PI * 2);
+            float speed = (float) rnd.nextDouble(200, 420);
+            pool.spawn(
+                    (float) rnd.nextDouble(WIDTH),
+                    (float) rnd.nextDouble(HEIGHT),
+                    (float) Math.cos(angle) * speed,
+                    (float) Math.sin(angle) * speed,
+                    rnd.nextInt(5) == 0);
+        }
+        // As if they'd all been through a tick, so collision tests sweep them
+        pool.moved = pool.count;
+    }
+
+    static Game headlessGame() {
+        return HeadlessRunner.newHeadlessGame(() -> 0);
+    }
+}
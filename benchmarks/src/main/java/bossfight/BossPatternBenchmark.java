@@ -0,0 +1,80 @@
+package bossfight;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// ENRAGED volley emission into a pool already holding bulletCount bullets
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BossPatternBenchmark {
+
+    // Room for one volley of each pattern on top of the existing bullets
+    static final int HEADROOM = 64;
+
+    @Param({ "100", "1000", "10000", "100000", "1000000" })
+    int bulletCount;
+
+    Game game;
+    BulletPool pool;
+
+    // The boss's storage and index in it, and where it aims
+    Archetype boss;
+    int bossIndex;
+    float targetX, targetY;
+
+    int radial, cone, spiral;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        game = BenchmarkArena.headlessGame();
+        boss = game.world.archetypeOf(game.boss);
+        bossIndex = game.world.indexOf(game.boss);
+        boss.phase[bossIndex] = BossSystem.Phase.ENRAGED;
+        targetX = game.world.x(game.player);
+        targetY = game.world.y(game.player);
+        radial = game.patterns.index("radial");
+        cone = game.patterns.index("cone");
+        spiral = game.patterns.index("spiral");
+
+        pool = new BulletPool(bulletCount + HEADROOM);
+        BenchmarkArena.fill(pool, bulletCount);
+    }
+
+    @Benchmark
+    public int fireRadialPattern() {
+        return fire(radial);
+    }
+
+    @Benchmark
+    public int fireConePattern() {
+        return fire(cone);
+    }
+
+    @Benchmark
+    public int fireSpiralPattern() {
+        return fire(spiral);
+    }
+
+    private int fire(int pattern) {
+        BossSystem.firePattern(boss, bossIndex, game.patterns, pattern, pool, targetX, targetY);
+        int emitted = pool.size();
+        pool.count = bulletCount;
+        return emitted;
+    }
+}
@@ -0,0 +1,166 @@
+package bossfight;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Bullet integration and dead-bullet compaction
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class BulletBenchmark {
+
+    static final float DT = 1f / 60f;
+
+    static final Viewport VIEW = new Viewport(BenchmarkArena.WIDTH, BenchmarkArena.HEIGHT);
+
+    // Fraction of bullets that die in a tick for the compaction benchmarks
+    static final int DEAD_ONE_IN = 10;
+
+    @Param({ "100", "1000", "10000", "100000", "1000000" })
+    int bulletCount;
+
+    BulletPool pool;
+
+    ParallelBulletIntegrator parallel = new ParallelBulletIntegrator(ForkJoinPool.commonPool());
+
+    // Pristine copy restored before each compaction
+    BulletPool template;
+
+    // The old object-per-bullet layout, for comparison with removeIf
+    static final class LegacyBullet {
+        float x, y, vx, vy;
+        boolean friendly;
+        boolean alive = true;
+    }
+
+    List<LegacyBullet> legacyTemplate;
+    List<LegacyBullet> legacy;
+
+    boolean forward = true;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        pool = new BulletPool(bulletCount);
+        BenchmarkArena.fill(pool, bulletCount);
+
+        template = new BulletPool(bulletCount);
+        BenchmarkArena.fill(template, bulletCount);
+        for (int i = 0; i < bulletCount; i += DEAD_ONE_IN)
+            template.alive[i] = false;
+
+        legacyTemplate = new ArrayList<>(bulletCount);
+        for (int i = 0; i < bulletCount; i++) {
+            LegacyBullet b = new LegacyBullet();
+            b.x = template.x[i];
+            b.y = template.y[i];
+            b.vx = template.vx[i];
+            b.vy = template.vy[i];
+            b.friendly = template.friendly[i];
+            b.alive = template.alive[i];
+            legacyTemplate.add(b);
+        }
+        legacy = new ArrayList<>(bulletCount);
+    }
+
+    // Alternates +dt/-dt so bullets oscillate in place and none leave the
+    // arena, keeping the live count constant across iterations
+    @Benchmark
+    public int update() {
+        Bullet.update(pool, forward ? DT : -DT, VIEW);
+        forward = !forward;
+        return pool.size();
+    }
+
+    // Integration only, forced onto one thread / onto the ForkJoin chunks
+    @Benchmark
+    public int integrateSerial() {
+        Bullet.integrate(pool, 0, pool.size(), forward ? DT : -DT, VIEW, null);
+        forward = !forward;
+        return pool.size();
+    }
+
+    @Benchmark
+    public int integrateParallel() {
+        parallel.integrate(pool, forward ? DT : -DT, VIEW, null);
+        forward = !forward;
+        return pool.size();
+    }
+
+    // Single-threaded kernel, scalar loop vs SIMD (if the module loaded)
+    @Benchmark
+    public int kernelScalar() {
+        BulletKernel.integrateScalar(pool, 0, pool.size(), forward ? DT : -DT,
+                VIEW.cullMinX(), VIEW.cullMaxX(), VIEW.cullMinY(), VIEW.cullMaxY());
+        forward = !forward;
+        return pool.size();
+    }
+
+    @Benchmark
+    public int kernelVector() {
+        BulletKernel.integrate(pool, 0, pool.size(), forward ? DT : -DT, VIEW);
+        forward = !forward;
+        return pool.size();
+    }
+
+    @Benchmark
+    public int poolResetOnly() {
+        restorePool();
+        return pool.size();
+    }
+
+    // Subtract poolResetOnly to get the compaction cost alone
+    @Benchmark
+    public int poolRemoveDead() {
+        restorePool();
+        pool.removeDead();
+        return pool.size();
+    }
+
+    @Benchmark
+    public int listResetOnly() {
+        restoreLegacy();
+        return legacy.size();
+    }
+
+    // Subtract listResetOnly to get the removeIf cost alone
+    @Benchmark
+    public int listRemoveIf() {
+        restoreLegacy();
+        legacy.removeIf(b -> !b.alive);
+        return legacy.size();
+    }
+
+    private void restorePool() {
+        int n = template.size();
+        System.arraycopy(template.x, 0, pool.x, 0, n);
+        System.arraycopy(template.y, 0, pool.y, 0, n);
+        System.arraycopy(template.vx, 0, pool.vx, 0, n);
+        System.arraycopy(template.vy, 0, pool.vy, 0, n);
+        System.arraycopy(template.friendly, 0, pool.friendly, 0, n);
+        System.arraycopy(template.alive, 0, pool.alive, 0, n);
+        pool.count = n;
+    }
+
+    private void restoreLegacy() {
+        legacy.clear();
+        legacy.addAll(legacyTemplate);
+    }
+}
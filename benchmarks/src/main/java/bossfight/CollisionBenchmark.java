@@ -0,0 +1,50 @@
+package bossfight;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Game.checkCollisions over a full arena of bullets
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class CollisionBenchmark {
+
+    @Param({ "100", "1000", "10000", "100000", "1000000" })
+    int bulletCount;
+
+    Game game;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        game = BenchmarkArena.headlessGame();
+        game.bullets = new BulletPool(bulletCount);
+        BenchmarkArena.fill(game.bullets, bulletCount);
+        // Sweep over a normal 60 Hz tick, as a running game would
+        game.lastDt = 1f / 60f;
+    }
+
+    // Hits clear alive flags, so revive everything first; the fill is a
+    // small constant next to the collision pass itself
+    @Benchmark
+    public int checkCollisions() {
+        BulletPool pool = game.bullets;
+        Arrays.fill(pool.alive, 0, pool.size(), true);
+        return game.checkCollisions();
+    }
+}
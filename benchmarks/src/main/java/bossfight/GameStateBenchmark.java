@@ -0,0 +1,69 @@
+package bossfight;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// Game.save / Game.restore of a mid-fight game with a full bullet field and
+// a few world entities: what one rollback step costs
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = "--add-modules=jdk.incubator.vector")
+@State(Scope.Thread)
+public class GameStateBenchmark {
+
+    @Param({ "1000", "10000" })
+    int bulletCount;
+
+    Game game;
+    GameState state;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        game = BenchmarkArena.headlessGame();
+        game.bullets = new BulletPool(Math.max(Game.MAX_BULLETS, bulletCount));
+        for (int i = 0; i < 16; i++)
+            Prefabs.minion(game.world, 100 + i * 60, 300, 40, 0, null);
+
+        // Into the fight a little, so the boss has timers and volleys to copy
+        for (int i = 0; i < 120; i++)
+            game.update(1f / 60);
+        BenchmarkArena.fill(game.bullets, bulletCount);
+
+        state = game.newState();
+        game.save(state);
+    }
+
+    @Benchmark
+    public GameState save() {
+        game.save(state);
+        return state;
+    }
+
+    @Benchmark
+    public Game restore() {
+        game.restore(state);
+        return game;
+    }
+
+    // Rewind and replay one tick, as rollback does on a late input
+    @Benchmark
+    public Game restoreAndTick() {
+        game.restore(state);
+        game.update(1f / 60);
+        return game;
+    }
+}
@@ -0,0 +1,68 @@
+package bossfight;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// CPU-side render command generation through the recording backend:
+// everything the GL path does except the driver calls. The map on its own
+// is in TileMapBenchmark.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class RenderBenchmark {
+
+    static final int BATCH_QUADS = 8192;
+
+    @Param({ "100", "1000", "10000", "100000", "1000000" })
+    int bulletCount;
+
+    Game game;
+    RecordingRenderBackend backend;
+    SpriteBatch batch;
+    TextureRegion bulletSprite;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        game = BenchmarkArena.headlessGame();
+        game.bullets = new BulletPool(bulletCount);
+        BenchmarkArena.fill(game.bullets, bulletCount);
+
+        // Fake atlas; the recording backend never touches GL
+        Texture atlas = new Texture(1, 1024, 1024);
+        TextureRegion tileset = new TextureRegion(atlas, 0f, 0f, 0.5f, 0.5f, 512, 512);
+        game.tileMap.setTileset(TextureRegion.split(tileset, 8, 8));
+        bulletSprite = new TextureRegion(atlas, 0.5f, 0f, 0.52f, 0.02f, 16, 16);
+
+        backend = new RecordingRenderBackend();
+        batch = new SpriteBatch(backend, BATCH_QUADS);
+    }
+
+    @Benchmark
+    public int tileMapAndBullets() {
+        game.tileMap.render(batch);
+        Bullet.render(game.bullets, bulletSprite, batch, 0f, game.view);
+        batch.flush();
+        return drawCalls();
+    }
+
+    private int drawCalls() {
+        int n = backend.drawCallCount();
+        backend.reset();
+        return n;
+    }
+}
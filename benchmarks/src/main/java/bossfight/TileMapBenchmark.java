@@ -0,0 +1,53 @@
+package bossfight;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// The tile map on its own through the recording backend. Nothing here
+// depends on the bullet count, so it's kept apart from RenderBenchmark's
+// bulletCount sweep.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TileMapBenchmark {
+
+    Game game;
+    RecordingRenderBackend backend;
+    SpriteBatch batch;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        game = BenchmarkArena.headlessGame();
+
+        // Fake atlas; the recording backend never touches GL
+        Texture atlas = new Texture(1, 1024, 1024);
+        TextureRegion tileset = new TextureRegion(atlas, 0f, 0f, 0.5f, 0.5f, 512, 512);
+        game.tileMap.setTileset(TextureRegion.split(tileset, 8, 8));
+
+        backend = new RecordingRenderBackend();
+        batch = new SpriteBatch(backend, RenderBenchmark.BATCH_QUADS);
+    }
+
+    @Benchmark
+    public int tileMap() {
+        game.tileMap.render(batch);
+        batch.flush();
+        int n = backend.drawCallCount();
+        backend.reset();
+        return n;
+    }
+}
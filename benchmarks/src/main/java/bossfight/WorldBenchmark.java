@@ -0,0 +1,93 @@
+package bossfight;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+// World systems over a mix of minions and gunners
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class WorldBenchmark {
+
+    static final float DT = 1f / 60f;
+
+    @Param({ "100", "1000", "10000", "100000" })
+    int entityCount;
+
+    World world;
+    PatternSet patterns;
+    BulletPool bullets;
+    SpriteBatch batch;
+    RecordingRenderBackend backend;
+    FrameSnapshot snapshot;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Texture atlas = new Texture(1, 1024, 1024);
+        TextureRegion sprite = new TextureRegion(atlas, 0f, 0f, 0.05f, 0.05f, 48, 48);
+
+        // Eight minions to one gunner
+        SplittableRandom rnd = new SplittableRandom(BenchmarkArena.SEED);
+        patterns = PatternSet.defaults();
+        int gunner = patterns.index("gunner");
+        world = new World(entityCount);
+        for (int i = 0; i < entityCount; i++) {
+            float x = (float) rnd.nextDouble(BenchmarkArena.WIDTH);
+            float y = (float) rnd.nextDouble(BenchmarkArena.HEIGHT);
+            float vx = (float) rnd.nextDouble(-200, 200);
+            float vy = (float) rnd.nextDouble(-200, 200);
+            if (i % 9 == 0)
+                Prefabs.gunner(world, x, y, vx, vy, sprite, gunner);
+            else
+                Prefabs.minion(world, x, y, vx, vy, sprite);
+        }
+
+        bullets = new BulletPool(Game.MAX_BULLETS);
+        backend = new RecordingRenderBackend();
+        batch = new SpriteBatch(backend, 8192);
+        snapshot = new FrameSnapshot(1);
+    }
+
+    @Benchmark
+    public int movement() {
+        MovementSystem.savePrevious(world);
+        MovementSystem.run(world, DT, BenchmarkArena.WIDTH, BenchmarkArena.HEIGHT);
+        return world.size();
+    }
+
+    // Volleys fired this tick are dropped again so the pool never fills up
+    @Benchmark
+    public int gunners() {
+        bullets.clear();
+        GunnerSystem.run(world, DT, bullets, patterns, BossSystem.Phase.ENRAGED,
+                BenchmarkArena.WIDTH * 0.5f, BenchmarkArena.HEIGHT * 0.5f);
+        return bullets.size();
+    }
+
+    // Capture into a snapshot plus drawing it, as Game does each frame
+    @Benchmark
+    public int render() {
+        RenderSystem.capture(world, snapshot);
+        RenderSystem.draw(snapshot, batch, 0.5f);
+        batch.flush();
+        int n = backend.quadCount();
+        backend.reset();
+        return n;
+    }
+}
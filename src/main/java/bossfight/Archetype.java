@@ -0,0 +1,348 @@
+package bossfight;
+
+import java.util.Arrays;
+
+// Storage for every entity with exactly one set of components.
+//
+// Components are columns of primitive arrays; entity n of this archetype is
+// index n in each column. Only the columns in the mask are allocated. Like
+// BulletPool, live entities occupy [0, count) and removal swaps with the last.
+public class Archetype {
+
+    // Component bits
+    public static final int POSITION = 1;  // x, y, prevX, prevY
+    public static final int VELOCITY = 2;  // vx, vy
+    public static final int BOUNDS = 4;    // w, h
+    public static final int SPRITE = 8;    // sprite
+    public static final int HEALTH = 16;   // hp, maxHp
+    public static final int FACTION = 32;  // faction
+    public static final int AI = 64;       // aiTimer, aiInterval, aiPattern, aiVolley
+    public static final int PILOT = 128;   // slot, lives, invuln, speed, shootTimer
+    public static final int BRAIN = 256;   // phase, state, timers, attackIndex, volleys
+
+    // Shot at by bullets of the other faction
+    public static final int COLLIDER = POSITION | BOUNDS | HEALTH | FACTION;
+
+    public final int mask;
+    int count = 0;
+
+    // World id of each entity, to keep the world's id -> index map current
+    int[] id;
+    boolean[] alive;
+
+    float[] x, y, prevX, prevY;
+    float[] vx, vy;
+    float[] w, h;
+    TextureRegion[] sprite;
+    float[] hp, maxHp;
+    Faction[] faction;
+
+    // Seconds to the next volley and between volleys, which PatternSet
+    // pattern it fires and how many volleys it has fired so far
+    float[] aiTimer, aiInterval;
+    int[] aiPattern, aiVolley;
+
+    // A player: whose buttons it reads, lives left, seconds of blinking
+    // after a hit, pixels per second and seconds until it can fire again
+    int[] slot, lives;
+    float[] invuln, speed, shootTimer;
+
+    // The boss's state machine (see BossSystem). Durations follow the
+    // phase; volleys counts how often each PatternSet pattern has fired,
+    // for spin and sway, and time is the clock at the last update, for
+    // bobbing and the telegraph pulse.
+    BossSystem.Phase[] phase;
+    BossSystem.State[] state;
+    float[] stateTimer, idleDuration, telegraphDuration, cooldownDuration, time;
+    int[] attackIndex;
+    int[][] volleys;
+
+    Archetype(int mask, int capacity) {
+        this.mask = mask;
+        id = new int[capacity];
+        alive = new boolean[capacity];
+
+        if (has(POSITION)) {
+            x = new float[capacity];
+            y = new float[capacity];
+            prevX = new float[capacity];
+            prevY = new float[capacity];
+        }
+        if (has(VELOCITY)) {
+            vx = new float[capacity];
+            vy = new float[capacity];
+        }
+        if (has(BOUNDS)) {
+            w = new float[capacity];
+            h = new float[capacity];
+        }
+        if (has(SPRITE))
+            sprite = new TextureRegion[capacity];
+        if (has(HEALTH)) {
+            hp = new float[capacity];
+            maxHp = new float[capacity];
+        }
+        if (has(FACTION))
+            faction = new Faction[capacity];
+        if (has(AI)) {
+            aiTimer = new float[capacity];
+            aiInterval = new float[capacity];
+            aiPattern = new int[capacity];
+            aiVolley = new int[capacity];
+        }
+        if (has(PILOT)) {
+            slot = new int[capacity];
+            lives = new int[capacity];
+            invuln = new float[capacity];
+            speed = new float[capacity];
+            shootTimer = new float[capacity];
+        }
+        if (has(BRAIN)) {
+            phase = new BossSystem.Phase[capacity];
+            state = new BossSystem.State[capacity];
+            stateTimer = new float[capacity];
+            idleDuration = new float[capacity];
+            telegraphDuration = new float[capacity];
+            cooldownDuration = new float[capacity];
+            time = new float[capacity];
+            attackIndex = new int[capacity];
+            volleys = new int[capacity][];
+        }
+    }
+
+    public boolean has(int components) {
+        return (mask & components) == components;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    // Appends a zeroed entity and returns its index
+    int add(int entityId) {
+        if (count == id.length)
+            grow(count * 2);
+
+        int i = count++;
+        id[i] = entityId;
+        alive[i] = true;
+        clear(i);
+        return i;
+    }
+
+    // Moves the last entity into slot i. Returns the id of the entity that
+    // now lives at i, or -1 if i was the last slot.
+    int removeAt(int i) {
+        int last = --count;
+        if (i == last) {
+            if (sprite != null)
+                sprite[last] = null;
+            return -1;
+        }
+
+        id[i] = id[last];
+        alive[i] = alive[last];
+        if (x != null) {
+            x[i] = x[last];
+            y[i] = y[last];
+            prevX[i] = prevX[last];
+            prevY[i] = prevY[last];
+        }
+        if (vx != null) {
+            vx[i] = vx[last];
+            vy[i] = vy[last];
+        }
+        if (w != null) {
+            w[i] = w[last];
+            h[i] = h[last];
+        }
+        if (sprite != null) {
+            sprite[i] = sprite[last];
+            sprite[last] = null;
+        }
+        if (hp != null) {
+            hp[i] = hp[last];
+            maxHp[i] = maxHp[last];
+        }
+        if (faction != null)
+            faction[i] = faction[last];
+        if (aiTimer != null) {
+            aiTimer[i] = aiTimer[last];
+            aiInterval[i] = aiInterval[last];
+            aiPattern[i] = aiPattern[last];
+            aiVolley[i] = aiVolley[last];
+        }
+        if (slot != null) {
+            slot[i] = slot[last];
+            lives[i] = lives[last];
+            invuln[i] = invuln[last];
+            speed[i] = speed[last];
+            shootTimer[i] = shootTimer[last];
+        }
+        if (phase != null) {
+            phase[i] = phase[last];
+            state[i] = state[last];
+            stateTimer[i] = stateTimer[last];
+            idleDuration[i] = idleDuration[last];
+            telegraphDuration[i] = telegraphDuration[last];
+            cooldownDuration[i] = cooldownDuration[last];
+            time[i] = time[last];
+            attackIndex[i] = attackIndex[last];
+            // Swap rather than copy so the removed one's array gets reused
+            int[] v = volleys[i];
+            volleys[i] = volleys[last];
+            volleys[last] = v;
+        }
+        return id[i];
+    }
+
+    // Makes this an exact copy of other's entities. Same mask required;
+    // only allocates if other holds more than fits.
+    void copyFrom(Archetype other) {
+        int n = other.count;
+        if (n > id.length)
+            grow(Integer.highestOneBit(n - 1) << 1);
+
+        System.arraycopy(other.id, 0, id, 0, n);
+        System.arraycopy(other.alive, 0, alive, 0, n);
+        if (x != null) {
+            System.arraycopy(other.x, 0, x, 0, n);
+            System.arraycopy(other.y, 0, y, 0, n);
+            System.arraycopy(other.prevX, 0, prevX, 0, n);
+            System.arraycopy(other.prevY, 0, prevY, 0, n);
+        }
+        if (vx != null) {
+            System.arraycopy(other.vx, 0, vx, 0, n);
+            System.arraycopy(other.vy, 0, vy, 0, n);
+        }
+        if (w != null) {
+            System.arraycopy(other.w, 0, w, 0, n);
+            System.arraycopy(other.h, 0, h, 0, n);
+        }
+        if (sprite != null) {
+            System.arraycopy(other.sprite, 0, sprite, 0, n);
+            // Don't keep sprites alive past the end
+            Arrays.fill(sprite, n, Math.max(n, count), null);
+        }
+        if (hp != null) {
+            System.arraycopy(other.hp, 0, hp, 0, n);
+            System.arraycopy(other.maxHp, 0, maxHp, 0, n);
+        }
+        if (faction != null)
+            System.arraycopy(other.faction, 0, faction, 0, n);
+        if (aiTimer != null) {
+            System.arraycopy(other.aiTimer, 0, aiTimer, 0, n);
+            System.arraycopy(other.aiInterval, 0, aiInterval, 0, n);
+            System.arraycopy(other.aiPattern, 0, aiPattern, 0, n);
+            System.arraycopy(other.aiVolley, 0, aiVolley, 0, n);
+        }
+        if (slot != null) {
+            System.arraycopy(other.slot, 0, slot, 0, n);
+            System.arraycopy(other.lives, 0, lives, 0, n);
+            System.arraycopy(other.invuln, 0, invuln, 0, n);
+            System.arraycopy(other.speed, 0, speed, 0, n);
+            System.arraycopy(other.shootTimer, 0, shootTimer, 0, n);
+        }
+        if (phase != null) {
+            System.arraycopy(other.phase, 0, phase, 0, n);
+            System.arraycopy(other.state, 0, state, 0, n);
+            System.arraycopy(other.stateTimer, 0, stateTimer, 0, n);
+            System.arraycopy(other.idleDuration, 0, idleDuration, 0, n);
+            System.arraycopy(other.telegraphDuration, 0, telegraphDuration, 0, n);
+            System.arraycopy(other.cooldownDuration, 0, cooldownDuration, 0, n);
+            System.arraycopy(other.time, 0, time, 0, n);
+            System.arraycopy(other.attackIndex, 0, attackIndex, 0, n);
+            // Deep copy: the arrays themselves change every volley
+            for (int i = 0; i < n; i++) {
+                int[] src = other.volleys[i];
+                if (volleys[i] == null || volleys[i].length != src.length)
+                    volleys[i] = src.clone();
+                else
+                    System.arraycopy(src, 0, volleys[i], 0, src.length);
+            }
+        }
+        count = n;
+    }
+
+    private void clear(int i) {
+        if (x != null)
+            x[i] = y[i] = prevX[i] = prevY[i] = 0;
+        if (vx != null)
+            vx[i] = vy[i] = 0;
+        if (w != null)
+            w[i] = h[i] = 0;
+        if (sprite != null)
+            sprite[i] = null;
+        if (hp != null)
+            hp[i] = maxHp[i] = 0;
+        if (faction != null)
+            faction[i] = Faction.ENEMY;
+        if (aiTimer != null) {
+            aiTimer[i] = aiInterval[i] = 0;
+            aiPattern[i] = aiVolley[i] = 0;
+        }
+        if (slot != null) {
+            slot[i] = lives[i] = 0;
+            invuln[i] = speed[i] = shootTimer[i] = 0;
+        }
+        if (phase != null) {
+            phase[i] = BossSystem.Phase.PHASE1;
+            state[i] = BossSystem.State.IDLE;
+            stateTimer[i] = idleDuration[i] = telegraphDuration[i] = cooldownDuration[i] = time[i] = 0;
+            attackIndex[i] = 0;
+            if (volleys[i] != null)
+                Arrays.fill(volleys[i], 0);
+        }
+    }
+
+    private void grow(int capacity) {
+        id = Arrays.copyOf(id, capacity);
+        alive = Arrays.copyOf(alive, capacity);
+        if (x != null) {
+            x = Arrays.copyOf(x, capacity);
+            y = Arrays.copyOf(y, capacity);
+            prevX = Arrays.copyOf(prevX, capacity);
+            prevY = Arrays.copyOf(prevY, capacity);
+        }
+        if (vx != null) {
+            vx = Arrays.copyOf(vx, capacity);
+            vy = Arrays.copyOf(vy, capacity);
+        }
+        if (w != null) {
+            w = Arrays.copyOf(w, capacity);
+            h = Arrays.copyOf(h, capacity);
+        }
+        if (sprite != null)
+            sprite = Arrays.copyOf(sprite, capacity);
+        if (hp != null) {
+            hp = Arrays.copyOf(hp, capacity);
+            maxHp = Arrays.copyOf(maxHp, capacity);
+        }
+        if (faction != null)
+            faction = Arrays.copyOf(faction, capacity);
+        if (aiTimer != null) {
+            aiTimer = Arrays.copyOf(aiTimer, capacity);
+            aiInterval = Arrays.copyOf(aiInterval, capacity);
+            aiPattern = Arrays.copyOf(aiPattern, capacity);
+            aiVolley = Arrays.copyOf(aiVolley, capacity);
+        }
+        if (slot != null) {
+            slot = Arrays.copyOf(slot, capacity);
+            lives = Arrays.copyOf(lives, capacity);
+            invuln = Arrays.copyOf(invuln, capacity);
+            speed = Arrays.copyOf(speed, capacity);
+            shootTimer = Arrays.copyOf(shootTimer, capacity);
+        }
+        if (phase != null) {
+            phase = Arrays.copyOf(phase, capacity);
+            state = Arrays.copyOf(state, capacity);
+            stateTimer = Arrays.copyOf(stateTimer, capacity);
+            idleDuration = Arrays.copyOf(idleDuration, capacity);
+            telegraphDuration = Arrays.copyOf(telegraphDuration, capacity);
+            cooldownDuration = Arrays.copyOf(cooldownDuration, capacity);
+            time = Arrays.copyOf(time, capacity);
+            attackIndex = Arrays.copyOf(attackIndex, capacity);
+            volleys = Arrays.copyOf(volleys, capacity);
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package bossfight;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+// Loads assets in the background: file reads and image decoding run on a
+// pool of worker threads, and only the GL uploads are queued for the GL
+// thread, which runs them from pump() between frames.
+//
+// Every load is a CompletableFuture, so callers can chain on it, poll
+// isDone(), or block the GL thread with await() (which keeps pumping
+// uploads while it waits).
+public class AssetLoader {
+
+  private final ExecutorService workers;
+  private final ConcurrentLinkedQueue<Runnable> glTasks = new ConcurrentLinkedQueue<>();
+
+  private final AtomicInteger started = new AtomicInteger();
+  private final AtomicInteger finished = new AtomicInteger();
+
+  public AssetLoader(int threads) {
+    AtomicInteger n = new AtomicInteger();
+    workers = Executors.newFixedThreadPool(Math.max(1, threads), r -> {
+      Thread t = new Thread(r, "asset-loader-" + n.incrementAndGet());
+      t.setDaemon(true);
+      return t;
+    });
+  }
+
+  // One worker per core
+  public AssetLoader() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  public Executor workers() {
+    return workers;
+  }
+
+  // Runs work on a worker thread
+  public <T> CompletableFuture<T> async(Supplier<T> work) {
+    return track(CompletableFuture.supplyAsync(work, workers));
+  }
+
+  // Once input completes, runs upload on the GL thread (during pump())
+  public <T, R> CompletableFuture<R> onGlThread(CompletableFuture<T> input, Function<T, R> upload) {
+    CompletableFuture<R> result = new CompletableFuture<>();
+    input.whenComplete((value, failure) -> {
+      if (failure != null) {
+        result.completeExceptionally(failure);
+        return;
+      }
+      glTasks.add(() -> {
+        try {
+          result.complete(upload.apply(value));
+        } catch (Throwable t) {
+          result.completeExceptionally(t);
+        }
+      });
+    });
+    return track(result);
+  }
+
+  // A texture decoded on a worker and uploaded on the GL thread
+  public CompletableFuture<Texture> texture(String path) {
+    return onGlThread(async(() -> DecodedImage.decode(path)), image -> {
+      try {
+        return new Texture(image.pixels(), image.width(), image.height());
+      } finally {
+        image.free();
+      }
+    });
+  }
+
+  // GL thread: runs queued uploads for up to budgetNanos (at least one
+  // if any are waiting). Returns how many ran.
+  public int pump(long budgetNanos) {
+    long end = System.nanoTime() + budgetNanos;
+    int ran = 0;
+    Runnable task;
+    while ((task = glTasks.poll()) != null) {
+      task.run();
+      ran++;
+      if (System.nanoTime() >= end)
+        break;
+    }
+    return ran;
+  }
+
+  // GL thread: waits for a load, running uploads as they arrive
+  public <T> T await(CompletableFuture<T> future) {
+    while (!future.isDone()) {
+      if (pump(Long.MAX_VALUE) == 0) {
+        try {
+          future.get(1, TimeUnit.MILLISECONDS);
+        } catch (Exception e) {
+          // Not done yet, or failed: either way the loop or join() sorts it out
+        }
+      }
+    }
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException re)
+        throw re;
+      throw e;
+    }
+  }
+
+  // Fraction of loads started through this loader that have finished, 0..1
+  public float progress() {
+    int total = started.get();
+    return total == 0 ? 1f : finished.get() / (float) total;
+  }
+
+  public void shutdown() {
+    workers.shutdown();
+  }
+
+  private <T> CompletableFuture<T> track(CompletableFuture<T> future) {
+    started.incrementAndGet();
+    future.whenComplete((v, e) -> finished.incrementAndGet());
+    return future;
+  }
+}
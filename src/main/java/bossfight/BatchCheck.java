@@ -0,0 +1,142 @@
+package bossfight;
+
+// Headless checks of what SpriteBatch hands its backend, counted by a
+// RecordingRenderBackend, so batching regressions show up without a GPU.
+// Exits with status 1 on the first failure:
+//
+//   mvn exec:java -Dexec.mainClass=bossfight.BatchCheck -Dexec.args="10000"
+//
+// Checks, for frames of [sprites] quads (default 10000):
+//   atlas        every sprite a region of one texture: 1 draw call
+//   interleaved  two textures alternating: 2 draw calls, half the quads each
+//   overflow     more sprites than the batch holds: one flush per batchful
+//   scene        a fight's world, bullets and particles from one atlas,
+//                boss tint included: 1 draw call
+public final class BatchCheck {
+
+  static final int BATCH_QUADS = 8192;
+
+  private BatchCheck() {
+  }
+
+  // -----------------------------
+  // CHECKS
+  // -----------------------------
+
+  // Each returns null if the check passed, otherwise what went wrong
+
+  static String verifyAtlas(int sprites) {
+    RecordingRenderBackend backend = new RecordingRenderBackend();
+    SpriteBatch batch = new SpriteBatch(backend, Math.max(sprites, 1));
+    Texture atlas = new Texture(1, 1024, 1024);
+    TextureRegion[] cells = TextureRegion.split(new TextureRegion(atlas, 0f, 0f, 1f, 1f, 1024, 1024), 8, 8);
+
+    for (int i = 0; i < sprites; i++)
+      batch.draw(cells[i % cells.length], i % 1280, i % 720, 16, 16);
+    batch.flush();
+
+    return expect(backend, 1, sprites, 1);
+  }
+
+  static String verifyInterleaved(int sprites) {
+    RecordingRenderBackend backend = new RecordingRenderBackend();
+    SpriteBatch batch = new SpriteBatch(backend, Math.max(sprites, 1));
+    Texture a = new Texture(1, 64, 64);
+    Texture b = new Texture(2, 64, 64);
+
+    for (int i = 0; i < sprites; i++)
+      batch.draw(i % 2 == 0 ? a : b, i % 1280, i % 720, 16, 16);
+    batch.flush();
+
+    String failed = expect(backend, 2, sprites, 1);
+    if (failed != null)
+      return failed;
+    RecordingRenderBackend.DrawCall first = backend.drawCalls.get(0);
+    if (first.texture() != a || first.quadCount() != (sprites + 1) / 2)
+      return "first draw call has " + first.quadCount() + " quads, expected " + (sprites + 1) / 2;
+    return null;
+  }
+
+  static String verifyOverflow(int sprites) {
+    RecordingRenderBackend backend = new RecordingRenderBackend();
+    SpriteBatch batch = new SpriteBatch(backend, BATCH_QUADS);
+    Texture atlas = new Texture(1, 1024, 1024);
+
+    for (int i = 0; i < sprites; i++)
+      batch.draw(atlas, i % 1280, i % 720, 16, 16);
+    batch.flush();
+
+    int flushes = (sprites + BATCH_QUADS - 1) / BATCH_QUADS;
+    return expect(backend, flushes, sprites, flushes);
+  }
+
+  // A bot fight a few seconds in, with every sprite the game draws taken
+  // from one atlas, as Game has once its TextureAtlas is loaded
+  static String verifyScene(int sprites) {
+    Texture atlas = new Texture(1, 1024, 1024);
+    TextureRegion player = new TextureRegion(atlas, 0f, 0f, 0.1f, 0.1f, 64, 64);
+    TextureRegion boss = new TextureRegion(atlas, 0.1f, 0f, 0.2f, 0.1f, 64, 64);
+    TextureRegion bullet = new TextureRegion(atlas, 0.2f, 0f, 0.21f, 0.01f, 8, 8);
+    TextureRegion white = new TextureRegion(atlas, 0.3f, 0f, 0.301f, 0.001f, 1, 1);
+
+    Game game = HeadlessRunner.newHeadlessGame(() -> 0);
+    game.logEvents = false;
+    game.input = new BotInput(game);
+    game.bullets = new BulletPool(sprites + Game.MAX_BULLETS);
+    SimCheck.fill(game.bullets, sprites, game.width, game.height, new java.util.Random(1));
+    // Into phase 2, so minions are out too
+    Archetype a = game.world.archetypeOf(game.boss);
+    int b = game.world.indexOf(game.boss);
+    a.hp[b] = a.maxHp[b] * 0.5f;
+    for (int t = 0; t < 120; t++)
+      game.update(1f / 60f);
+
+    for (int k = 0; k < game.world.archetypeCount(); k++) {
+      Archetype e = game.world.archetype(k);
+      if (e.has(Archetype.SPRITE)) {
+        for (int i = 0; i < e.count; i++)
+          e.sprite[i] = e.has(Archetype.PILOT) ? player : boss;
+      }
+    }
+
+    FrameSnapshot s = game.newSnapshot();
+    game.snapshot(s);
+
+    RecordingRenderBackend backend = new RecordingRenderBackend();
+    SpriteBatch batch = new SpriteBatch(backend, s.worldCount + s.bulletCount() + Game.MAX_PARTICLES);
+    RenderSystem.draw(s, batch, 0.5f);
+    Bullet.render(s.bullets, bullet, batch, 0.5f * s.lastDt, s.view);
+    s.particles.render(white, batch, 0.5f * s.lastDt, s.view);
+    batch.flush();
+
+    if (s.worldCount < 3)
+      return "only " + s.worldCount + " world sprites in the scene";
+    return expect(backend, 1, backend.quadCount(), 1);
+  }
+
+  private static String expect(RecordingRenderBackend backend, int drawCalls, int quads, int uploads) {
+    if (backend.drawCallCount() != drawCalls)
+      return backend.drawCallCount() + " draw calls, expected " + drawCalls;
+    if (backend.quadCount() != quads)
+      return backend.quadCount() + " quads, expected " + quads;
+    if (backend.uploads != uploads)
+      return backend.uploads + " uploads, expected " + uploads;
+    return null;
+  }
+
+  private static boolean report(String check, String failed) {
+    System.out.println(check + ": " + (failed == null ? "OK" : "FAILED, " + failed));
+    return failed == null;
+  }
+
+  public static void main(String[] args) {
+    int sprites = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+    System.out.printf("batch: %d sprites%n", sprites);
+
+    boolean ok = report("atlas", verifyAtlas(sprites));
+    ok &= report("interleaved", verifyInterleaved(sprites));
+    ok &= report("overflow", verifyOverflow(sprites));
+    ok &= report("scene", verifyScene(sprites));
+    System.exit(ok ? 0 : 1);
+  }
+}
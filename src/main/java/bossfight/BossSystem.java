@@ -0,0 +1,164 @@
+package bossfight;
+
+// Runs the boss: every World entity with a BRAIN component (see
+// Prefabs.boss). Its phase follows its health; each phase cycles
+// IDLE -> TELEGRAPH -> ATTACK -> COOLDOWN at its own pace, firing that
+// phase's next PatternSet attack on ATTACK.
+public final class BossSystem {
+
+    public enum Phase {
+        PHASE1,
+        PHASE2,
+        ENRAGED
+    }
+
+    public enum State {
+        IDLE,
+        TELEGRAPH,
+        ATTACK,
+        COOLDOWN
+    }
+
+    private BossSystem() {
+    }
+
+    // time is the simulation clock, targetX/Y where aimed patterns point
+    public static void run(World world, float dt, float time, BulletPool bullets, PatternSet patterns,
+            float targetX, float targetY, int arenaH) {
+        for (int k = 0; k < world.archetypeCount(); k++) {
+            Archetype a = world.archetype(k);
+            if (!a.has(Archetype.BRAIN | Archetype.POSITION | Archetype.HEALTH))
+                continue;
+
+            for (int i = 0; i < a.count; i++) {
+                if (!a.alive[i])
+                    continue;
+
+                // Update phase based on health
+                updatePhase(a, i);
+
+                // Tick timer
+                a.stateTimer[i] += dt;
+
+                // State machine
+                switch (a.state[i]) {
+                    case IDLE -> updateIdleState(a, i);
+                    case TELEGRAPH -> updateTelegraphState(a, i);
+                    case ATTACK -> updateAttackState(a, i, patterns, bullets, targetX, targetY);
+                    case COOLDOWN -> updateCooldownState(a, i);
+                }
+
+                // Simple vertical bobbing so boss doesn’t feel static
+                a.time[i] = time;
+                a.y[i] = arenaH * 0.5f + (float) Math.sin(time * 1.2f) * 100f;
+            }
+        }
+    }
+
+    // -----------------------------
+    // PHASE LOGIC
+    // -----------------------------
+    private static void updatePhase(Archetype a, int i) {
+        float h = a.hp[i] / a.maxHp[i];
+        Phase before = a.phase[i];
+
+        if (h > 0.6f) {
+            a.phase[i] = Phase.PHASE1;
+            a.idleDuration[i] = 1.2f;
+            a.telegraphDuration[i] = 0.7f;
+            a.cooldownDuration[i] = 0.9f;
+        } else if (h > 0.3f) {
+            a.phase[i] = Phase.PHASE2;
+            a.idleDuration[i] = 0.9f;
+            a.telegraphDuration[i] = 0.6f;
+            a.cooldownDuration[i] = 0.7f;
+        } else {
+            a.phase[i] = Phase.ENRAGED;
+            a.idleDuration[i] = 0.6f;
+            a.telegraphDuration[i] = 0.5f;
+            a.cooldownDuration[i] = 0.6f;
+        }
+
+        // Each phase opens with the first attack on its list
+        if (a.phase[i] != before)
+            a.attackIndex[i] = 0;
+    }
+
+    // -----------------------------
+    // STATE MACHINE
+    // -----------------------------
+
+    private static void updateIdleState(Archetype a, int i) {
+        // Boss is just moving/bobbing; no attacks
+        if (a.stateTimer[i] >= a.idleDuration[i]) {
+            a.stateTimer[i] = 0f;
+            a.state[i] = State.TELEGRAPH;
+        }
+    }
+
+    private static void updateTelegraphState(Archetype a, int i) {
+        // The renderer flashes the sprite while this lasts (see RenderSystem)
+        if (a.stateTimer[i] >= a.telegraphDuration[i]) {
+            a.stateTimer[i] = 0f;
+            a.state[i] = State.ATTACK;
+        }
+    }
+
+    private static void updateAttackState(Archetype a, int i, PatternSet patterns, BulletPool bullets,
+            float targetX, float targetY) {
+        // Next attack in this phase's cycle; some fire several patterns at once
+        Phase phase = a.phase[i];
+        int[] group = patterns.attack(phase, a.attackIndex[i]++ % patterns.attackCount(phase));
+        for (int p : group)
+            firePattern(a, i, patterns, p, bullets, targetX, targetY);
+
+        // Immediately go to cooldown after firing
+        a.stateTimer[i] = 0f;
+        a.state[i] = State.COOLDOWN;
+    }
+
+    private static void updateCooldownState(Archetype a, int i) {
+        if (a.stateTimer[i] >= a.cooldownDuration[i]) {
+            a.stateTimer[i] = 0f;
+            a.state[i] = State.IDLE;
+        }
+    }
+
+    // -----------------------------
+    // ATTACK PATTERNS
+    // -----------------------------
+
+    static void firePattern(Archetype a, int i, PatternSet patterns, int pattern, BulletPool bullets,
+            float targetX, float targetY) {
+        // Aimed patterns point from the boss's centre at the target
+        patterns.pattern(pattern).fire(a.phase[i], bullets, a.x[i] - a.w[i] / 2f, a.y[i],
+                targetX - a.x[i], targetY - a.y[i], a.volleys[i][pattern]++);
+    }
+
+    // -----------------------------
+    // HEALTH
+    // -----------------------------
+
+    // Takes amount off the boss's health, stopping at zero. True if this
+    // hit finished it off.
+    static boolean takeDamage(Archetype a, int i, float amount) {
+        if (a.hp[i] <= 0f)
+            return false;
+        a.hp[i] = Math.max(0f, a.hp[i] - amount);
+        return a.hp[i] == 0f;
+    }
+
+    public static float health01(World world, int id) {
+        Archetype a = world.archetypeOf(id);
+        int i = world.indexOf(id);
+        return a.hp[i] / a.maxHp[i];
+    }
+
+    public static Phase phase(World world, int id) {
+        return world.archetypeOf(id).phase[world.indexOf(id)];
+    }
+
+    public static State state(World world, int id) {
+        return world.archetypeOf(id).state[world.indexOf(id)];
+    }
+}
@@ -0,0 +1,134 @@
+package bossfight;
+
+// Plays as a Player: lines up with the boss and fires, and steers away from
+// enemy bullets that are about to pass close by. Reads the live game state
+// when polled, so it has to be the input of the game it's looking at (or one
+// of its guests).
+//
+// Each enemy bullet's closest approach over the next LOOKAHEAD seconds is
+// worked out from its current velocity; bullets that will come within
+// DANGER pixels push the bot away, harder the sooner they arrive. No
+// allocation per poll, one pass over the pool.
+public class BotInput implements InputSource {
+
+    private static final float LOOKAHEAD = 0.6f;
+    private static final float DANGER = 60f;
+    // Below this much push the bot ignores threats and goes back to aiming
+    private static final float DEADZONE = 0.15f;
+    private static final float WALL_ZONE = 140f;
+
+    private final Game game;
+    private final int guest;
+
+    // Controls game.player
+    public BotInput(Game game) {
+        this(game, -1);
+    }
+
+    // Controls game.guests[guest], or game.player for -1
+    public BotInput(Game game, int guest) {
+        this.game = game;
+        this.guest = guest;
+    }
+
+    @Override
+    public int poll() {
+        int me = guest < 0 ? game.player : game.guests[guest];
+        if (me < 0)
+            return 0;
+
+        // Restart as soon as a fight is over, so soak runs keep going
+        if (game.gameOver)
+            return RESTART;
+
+        World world = game.world;
+        float px = world.x(me), py = world.y(me);
+        float bossY = world.y(game.boss);
+        float pushX = 0f, pushY = 0f;
+
+        BulletPool pool = game.bullets;
+        float reach = DANGER + 900f * LOOKAHEAD;
+        for (int i = 0, n = pool.size(); i < n; i++) {
+            if (pool.friendly[i])
+                continue;
+
+            float rx = pool.x[i] - px, ry = pool.y[i] - py;
+            if (Math.abs(rx) > reach || Math.abs(ry) > reach)
+                continue;
+
+            // Time of closest approach, assuming we stand still
+            float vx = pool.vx[i], vy = pool.vy[i];
+            float v2 = vx * vx + vy * vy;
+            float t = v2 > 0f ? -(rx * vx + ry * vy) / v2 : 0f;
+            if (t < 0f || t > LOOKAHEAD)
+                continue;
+
+            float cx = rx + vx * t, cy = ry + vy * t;
+            float d2 = cx * cx + cy * cy;
+            if (d2 > DANGER * DANGER)
+                continue;
+
+            // Step sideways from the bullet's path, away from where it passes
+            float d = (float) Math.sqrt(d2);
+            float weight = (1f - d / DANGER) * (1f - t / LOOKAHEAD);
+            if (d > 1e-3f) {
+                pushX -= cx / d * weight;
+                pushY -= cy / d * weight;
+            } else {
+                // Dead centre: go perpendicular to its path
+                float len = (float) Math.sqrt(v2);
+                pushX += -vy / len * weight;
+                pushY += vx / len * weight;
+            }
+        }
+
+        // While dodging, keep off the walls so there's always room to move
+        if (pushX != 0f || pushY != 0f) {
+            pushX += wall(px, game.width);
+            pushY += wall(py, game.height);
+        }
+
+        int buttons = 0;
+        float push = (float) Math.sqrt(pushX * pushX + pushY * pushY);
+        if (push > DEADZONE) {
+            buttons |= direction(pushX / push, pushY / push);
+        } else {
+            // Nothing close: track the boss vertically and hold our column
+            float dy = bossY - py;
+            if (Math.abs(dy) > 8f)
+                buttons |= dy > 0 ? UP : DOWN;
+            float dx = game.width * 0.25f - px;
+            if (Math.abs(dx) > 24f)
+                buttons |= dx > 0 ? RIGHT : LEFT;
+        }
+
+        // Shots fly straight right, so fire whenever they'd connect
+        Archetype boss = world.archetypeOf(game.boss);
+        if (Math.abs(bossY - py) < boss.h[world.indexOf(game.boss)] * 0.5f)
+            buttons |= FIRE;
+        return buttons;
+    }
+
+    // Push back towards the middle within WALL_ZONE pixels of an edge
+    private static float wall(float p, int size) {
+        if (p < WALL_ZONE)
+            return (WALL_ZONE - p) / WALL_ZONE;
+        if (p > size - WALL_ZONE)
+            return -(p - (size - WALL_ZONE)) / WALL_ZONE;
+        return 0f;
+    }
+
+    // Buttons for a unit direction, allowing diagonals
+    private static int direction(float dx, float dy) {
+        int buttons = 0;
+        if (dx > 0.38f)
+            buttons |= RIGHT;
+        else if (dx < -0.38f)
+            buttons |= LEFT;
+        if (dy > 0.38f)
+            buttons |= UP;
+        else if (dy < -0.38f)
+            buttons |= DOWN;
+        return buttons;
+    }
+}
@@ -1,35 +1,121 @@
 package bossfight;
 
-public class Bullet extends Entity {
-
-    float vx, vy;
-    boolean friendly;
-    boolean alive = true;
-
-    public Bullet(float x, float y, float vx, float vy,
-            boolean friendly, Texture tex) {
-        this.x = x;
-        this.y = y;
-        this.vx = vx;
-        this.vy = vy;
-        this.friendly = friendly;
-        this.texture = tex;
-        this.width = 10;
-        this.height = 10;
+import java.util.concurrent.ForkJoinPool;
+
+// Bullets have no per-object state any more; everything lives in a BulletPool.
+// These helpers are the update/render passes that run over the whole pool.
+public final class Bullet {
+
+    public static final float WIDTH = 10;
+    public static final float HEIGHT = 10;
+
+    private Bullet() {
+    }
+
+    // Pools with at least this many bullets integrate on several cores
+    static int parallelThreshold = Integer.getInteger("bossfight.parallelBulletThreshold", 50_000);
+
+    // Moves every bullet and drops the ones that left the viewport's cull area
+    public static void update(BulletPool pool, float dt, Viewport view) {
+        update(pool, dt, view, null);
     }
 
-    public void update(float dt) {
-        x += vx * dt;
-        y += vy * dt;
-        if (x < -50 || x > 2000 || y < -50 || y > 2000)
-            alive = false;
+    // As above, also bouncing bullets off or dropping them on walls (none
+    // if walls is null)
+    public static void update(BulletPool pool, float dt, Viewport view, WallGrid walls) {
+        if (pool.count >= parallelThreshold) {
+            if (pool.integrator == null)
+                pool.integrator = new ParallelBulletIntegrator(ForkJoinPool.commonPool());
+            pool.integrator.integrate(pool, dt, view, walls);
+        } else {
+            integrate(pool, 0, pool.count, dt, view, walls);
+        }
+
+        // Compaction stays serial so the resulting order is deterministic
+        pool.removeDead();
+        pool.moved = pool.count;
     }
 
-    public void render() {
-        // Angle the bullet in the direction it’s moving
-        float angleRad = (float) Math.atan2(vy, vx);
-        float angleDeg = (float) Math.toDegrees(angleRad);
+    // Moves bullets [from, to) and clears the alive flag of any that left
+    // the cull area. Touches nothing outside the range, so ranges can run in
+    // parallel.
+    static void integrate(BulletPool pool, int from, int to, float dt, Viewport view, WallGrid walls) {
+        BulletKernel.integrate(pool, from, to, dt, view);
+        if (walls != null)
+            hitWalls(pool, from, to, dt, walls);
+    }
+
+    // Bullets that ended the tick inside a wall either bounce back out or
+    // are dropped. Which way to bounce depends on which tile edge was
+    // crossed: solid only along x flips vx, only along y flips vy, and
+    // straight into a corner flips both. A bounce puts the bullet back where
+    // it started the tick on the flipped axes. Range-local like integrate().
+    static void hitWalls(BulletPool pool, int from, int to, float dt, WallGrid walls) {
+        float[] x = pool.x, y = pool.y, vx = pool.vx, vy = pool.vy;
+        boolean[] alive = pool.alive;
+        byte[] bounces = pool.bounces;
+
+        for (int i = from; i < to; i++) {
+            if (!alive[i])
+                continue;
+
+            int tx = walls.tileX(x[i]), ty = walls.tileY(y[i]);
+            if (!walls.solid(tx, ty))
+                continue;
+
+            if (bounces[i] >= walls.bounces) {
+                alive[i] = false;
+                continue;
+            }
+
+            float px = x[i] - vx[i] * dt, py = y[i] - vy[i] * dt;
+            int ptx = walls.tileX(px), pty = walls.tileY(py);
+            boolean flipX = walls.solid(tx, pty);
+            boolean flipY = walls.solid(ptx, ty);
+            if (!flipX && !flipY)
+                flipX = flipY = true;
+
+            if (flipX) {
+                vx[i] = -vx[i];
+                x[i] = px;
+            }
+            if (flipY) {
+                vy[i] = -vy[i];
+                y[i] = py;
+            }
+            bounces[i]++;
+
+            // Started the tick in a wall as well, so there's nowhere to go
+            if (walls.solidAt(x[i], y[i]))
+                alive[i] = false;
+        }
+    }
+
+    // Bullets move in straight lines, so instead of keeping previous positions
+    // they are drawn rewound along their velocity by 'lag' seconds, which is
+    // the same as lerping between the last two ticks.
+    // Bullets in the cull margin are still simulated but not drawn.
+    public static void render(BulletPool pool, TextureRegion sprite, SpriteBatch batch, float lag,
+            Viewport view) {
+        for (int i = 0; i < pool.count; i++) {
+            if (!pool.alive[i])
+                continue;
+
+            float vx = pool.vx[i], vy = pool.vy[i];
+            float bx = pool.x[i] - vx * lag, by = pool.y[i] - vy * lag;
+            if (!view.isVisible(bx, by, WIDTH, HEIGHT))
+                continue;
+
+            // Angle the bullet in the direction it’s moving. The normalised
+            // velocity already is (cos, sin) of that angle.
+            float len = (float) Math.sqrt(vx * vx + vy * vy);
+            float cos = 1f, sin = 0f;
+            if (len > 0) {
+                cos = vx / len;
+                sin = vy / len;
+            }
 
-        SpriteRenderer.drawRotatedSprite(texture, x, y, width, height, angleDeg);
+            batch.drawRotated(sprite, bx, by, WIDTH, HEIGHT, cos, sin);
+        }
     }
 }
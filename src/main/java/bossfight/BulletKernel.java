@@ -0,0 +1,124 @@
+package bossfight;
+
+// The per-bullet inner loops, in a SIMD version and a scalar version.
+//
+// The SIMD version (VectorBulletKernel) uses the jdk.incubator.vector module
+// and is only loaded when the JVM was started with
+//   --add-modules jdk.incubator.vector
+// mvn exec:java runs inside Maven's own JVM, so .mvn/jvm.config passes the
+// flag there; a plain java launch needs it on the command line. Otherwise,
+// or with -Dbossfight.simd=false, everything runs scalar. Both versions do
+// the same float operations in the same order per bullet, so results are
+// bit-identical either way.
+public final class BulletKernel {
+
+    public static final boolean VECTORIZED = Boolean.parseBoolean(System.getProperty("bossfight.simd", "true"))
+            && ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+    private BulletKernel() {
+    }
+
+    // Moves bullets [from, to) by their velocity and clears the alive flag of
+    // any outside the viewport's cull area
+    public static void integrate(BulletPool pool, int from, int to, float dt, Viewport view) {
+        float minX = view.cullMinX(), maxX = view.cullMaxX();
+        float minY = view.cullMinY(), maxY = view.cullMaxY();
+        if (VECTORIZED)
+            VectorBulletKernel.integrate(pool, from, to, dt, minX, maxX, minY, maxY);
+        else
+            integrateScalar(pool, from, to, dt, minX, maxX, minY, maxY);
+    }
+
+    // Writes the index of every live bullet of the given side that overlaps
+    // the box centred on (tx, ty) into hits, in index order, and returns how
+    // many there were. hits needs room for pool.size() entries.
+    public static int overlaps(BulletPool pool, boolean friendly,
+            float tx, float ty, float tw, float th, int[] hits) {
+        if (VECTORIZED)
+            return VectorBulletKernel.overlaps(pool, friendly, tx, ty, tw, th, hits);
+        return overlapsScalar(pool, friendly, tx, ty, tw, th, 0, pool.count, hits, 0);
+    }
+
+    // Like overlaps(), but over the whole tick rather than at its end: a
+    // bullet counts if it touched the box anywhere along the way, with both
+    // the bullet (moving by its velocity * dt) and the box (moving by tdx,
+    // tdy) in motion. Fast bullets can't skip through a thin target at low
+    // tick rates this way.
+    //
+    // Bullets spawned since the last Bullet.update (see BulletPool.moved)
+    // haven't moved yet, so they're tested from where they are rather than
+    // swept back along their velocity.
+    public static int sweeps(BulletPool pool, boolean friendly, float dt,
+            float tx, float ty, float tw, float th, float tdx, float tdy, int[] hits) {
+        int moved = pool.moved();
+        int n = VECTORIZED
+                ? VectorBulletKernel.sweeps(pool, friendly, dt, tx, ty, tw, th, tdx, tdy, moved, hits)
+                : sweepsScalar(pool, friendly, dt, tx, ty, tw, th, tdx, tdy, 0, moved, hits, 0);
+        return sweepsScalar(pool, friendly, 0f, tx, ty, tw, th, tdx, tdy, moved, pool.count, hits, n);
+    }
+
+    // Swept box test for one bullet. (rx, ry) is where the bullet ended the
+    // tick relative to the box's centre, (dx, dy) how far it moved relative
+    // to the box, (hx, hy) the box's half-size grown by the bullet's. Slab
+    // test on the segment from (rx - dx, ry - dy) to (rx, ry); a zero dx or
+    // dy divides to infinities, which the min/max handle.
+    static boolean swept(float rx, float ry, float dx, float dy, float hx, float hy) {
+        float sx = rx - dx, sy = ry - dy;
+        float ax = (-hx - sx) / dx, bx = (hx - sx) / dx;
+        float ay = (-hy - sy) / dy, by = (hy - sy) / dy;
+        float enter = Math.max(Math.max(Math.min(ax, bx), Math.min(ay, by)), 0f);
+        float exit = Math.min(Math.min(Math.max(ax, bx), Math.max(ay, by)), 1f);
+        return enter < exit;
+    }
+
+    static void integrateScalar(BulletPool pool, int from, int to, float dt,
+            float minX, float maxX, float minY, float maxY) {
+        float[] x = pool.x, y = pool.y, vx = pool.vx, vy = pool.vy;
+        boolean[] alive = pool.alive;
+
+        for (int i = from; i < to; i++) {
+            float nx = x[i] + vx[i] * dt;
+            float ny = y[i] + vy[i] * dt;
+            x[i] = nx;
+            y[i] = ny;
+
+            alive[i] &= nx >= minX && nx <= maxX
+                    && ny >= minY && ny <= maxY;
+        }
+    }
+
+    // End-of-tick overlap, appending to hits from hitCount on
+    static int overlapsScalar(BulletPool pool, boolean friendly,
+            float tx, float ty, float tw, float th, int from, int to, int[] hits, int hitCount) {
+        float[] x = pool.x, y = pool.y;
+        boolean[] alive = pool.alive, side = pool.friendly;
+        float limitX = Bullet.WIDTH + tw;
+        float limitY = Bullet.HEIGHT + th;
+
+        for (int i = from; i < to; i++) {
+            if (alive[i] && side[i] == friendly
+                    && Math.abs(x[i] - tx) * 2 < limitX
+                    && Math.abs(y[i] - ty) * 2 < limitY) {
+                hits[hitCount++] = i;
+            }
+        }
+        return hitCount;
+    }
+
+    static int sweepsScalar(BulletPool pool, boolean friendly, float dt,
+            float tx, float ty, float tw, float th, float tdx, float tdy,
+            int from, int to, int[] hits, int hitCount) {
+        float[] x = pool.x, y = pool.y, vx = pool.vx, vy = pool.vy;
+        boolean[] alive = pool.alive, side = pool.friendly;
+        float hx = (Bullet.WIDTH + tw) * 0.5f;
+        float hy = (Bullet.HEIGHT + th) * 0.5f;
+
+        for (int i = from; i < to; i++) {
+            if (alive[i] && side[i] == friendly
+                    && swept(x[i] - tx, y[i] - ty, vx[i] * dt - tdx, vy[i] * dt - tdy, hx, hy)) {
+                hits[hitCount++] = i;
+            }
+        }
+        return hitCount;
+    }
+}
@@ -0,0 +1,103 @@
+package bossfight;
+
+import java.util.Arrays;
+
+// One named boss attack, compiled from a PatternSet file.
+//
+// Each phase gets its own volley: a table of bullet velocities laid out
+// around angle 0, built once at load time. Firing turns the whole table by
+// one rotation (towards the player, or by the volley's spin/sway) and copies
+// it into the bullet pool, so there is no trig per bullet.
+public class BulletPattern {
+
+    public enum Kind {
+        RADIAL,  // count bullets evenly around the full circle, spinning by rotate each volley
+        SPIRAL,  // one arm: count bullets over spread, each speedStep faster, spinning by rotate
+        WAVE,    // a fan of spread degrees swaying +-rotate around angle over period volleys
+        CONE,    // a fan of spread degrees centred on the player
+        AIMED    // count bullets straight at the player, each speedStep faster
+    }
+
+    static final class Volley {
+        final Kind kind;
+        final float[] vx, vy;
+        final float angle;   // degrees added to every volley
+        final float rotate;  // spin per volley (RADIAL, SPIRAL) or sway amplitude (WAVE), degrees
+        final float period;  // volleys per sway (WAVE)
+
+        Volley(Kind kind, float[] vx, float[] vy, float angle, float rotate, float period) {
+            this.kind = kind;
+            this.vx = vx;
+            this.vy = vy;
+            this.angle = angle;
+            this.rotate = rotate;
+            this.period = period;
+        }
+    }
+
+    public final String name;
+    private final Volley[] volleys = new Volley[BossSystem.Phase.values().length];
+
+    BulletPattern(String name) {
+        this.name = name;
+    }
+
+    // Builds the velocity table for one phase
+    void define(BossSystem.Phase phase, Kind kind, int count, float speed, float speedStep,
+            float spread, float angle, float rotate, float period) {
+        float[] vx = new float[count];
+        float[] vy = new float[count];
+
+        for (int i = 0; i < count; i++) {
+            double deg = switch (kind) {
+                case RADIAL -> 360.0 / count * i;
+                case SPIRAL -> spread / count * i;
+                case WAVE, CONE, AIMED -> {
+                    float t = (count == 1) ? 0.5f : (i / (float) (count - 1)); // 0..1
+                    yield -spread / 2f + spread * t;
+                }
+            };
+            float s = speed + speedStep * i;
+            vx[i] = (float) Math.cos(Math.toRadians(deg)) * s;
+            vy[i] = (float) Math.sin(Math.toRadians(deg)) * s;
+        }
+
+        volleys[phase.ordinal()] = new Volley(kind, vx, vy, angle, rotate, period);
+    }
+
+    public boolean hasPhase(BossSystem.Phase phase) {
+        return volleys[phase.ordinal()] != null;
+    }
+
+    // Emits the phase's volley from (ox, oy). volley counts how many times
+    // this pattern fired before, and drives spin and sway. Returns the
+    // number of bullets spawned.
+    public int fire(BossSystem.Phase phase, BulletPool pool, float ox, float oy,
+            float aimDx, float aimDy, int volley) {
+        Volley v = volleys[phase.ordinal()];
+        if (v == null)
+            return 0;
+
+        double turn = switch (v.kind) {
+            case RADIAL, SPIRAL -> v.angle + v.rotate * (volley + 1);
+            case WAVE -> v.angle + v.rotate * Math.sin(2 * Math.PI * volley / v.period);
+            case CONE, AIMED -> v.angle + Math.toDegrees(Math.atan2(aimDy, aimDx));
+        };
+        float c = (float) Math.cos(Math.toRadians(turn));
+        float s = (float) Math.sin(Math.toRadians(turn));
+
+        int first = pool.size();
+        int n = pool.reserve(v.vx.length, false);
+
+        Arrays.fill(pool.x, first, first + n, ox);
+        Arrays.fill(pool.y, first, first + n, oy);
+
+        float[] tx = v.vx, ty = v.vy;
+        float[] px = pool.vx, py = pool.vy;
+        for (int i = 0; i < n; i++) {
+            px[first + i] = tx[i] * c - ty[i] * s;
+            py[first + i] = tx[i] * s + ty[i] * c;
+        }
+        return n;
+    }
+}
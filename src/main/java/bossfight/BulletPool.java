@@ -0,0 +1,122 @@
+package bossfight;
+
+import java.util.Arrays;
+
+// Preallocated structure-of-arrays storage for every live bullet.
+// Bullets occupy indices [0, size()) with no gaps: removal moves the last
+// bullet into the freed slot, so spawning and despawning never allocate.
+public class BulletPool {
+
+    public final int capacity;
+
+    public final float[] x, y;
+    public final float[] vx, vy;
+    public final boolean[] friendly;
+    public final boolean[] alive;
+    // Walls bounced off so far, see WallGrid.bounces
+    public final byte[] bounces;
+
+    int count = 0;
+
+    // Bullets [0, moved) went through the last Bullet.update; any after
+    // that were spawned since and are still where they started
+    int moved = 0;
+
+    // Created on first use by Bullet.update once the pool gets big
+    ParallelBulletIntegrator integrator;
+
+    public BulletPool(int capacity) {
+        this.capacity = capacity;
+        x = new float[capacity];
+        y = new float[capacity];
+        vx = new float[capacity];
+        vy = new float[capacity];
+        friendly = new boolean[capacity];
+        alive = new boolean[capacity];
+        bounces = new byte[capacity];
+    }
+
+    // Returns the new bullet's index, or -1 if the pool is full (the shot is dropped)
+    public int spawn(float px, float py, float pvx, float pvy, boolean isFriendly) {
+        if (count == capacity)
+            return -1;
+
+        int i = count++;
+        x[i] = px;
+        y[i] = py;
+        vx[i] = pvx;
+        vy[i] = pvy;
+        friendly[i] = isFriendly;
+        alive[i] = true;
+        bounces[i] = 0;
+        return i;
+    }
+
+    // Claims up to n slots at the end of the pool for a bulk spawn and
+    // returns how many it got. They start at the old size(); positions and
+    // velocities are left for the caller to fill in.
+    public int reserve(int n, boolean isFriendly) {
+        int first = count;
+        int got = Math.min(n, capacity - count);
+        count += got;
+        Arrays.fill(friendly, first, count, isFriendly);
+        Arrays.fill(alive, first, count, true);
+        Arrays.fill(bounces, first, count, (byte) 0);
+        return got;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    public int moved() {
+        return Math.min(moved, count);
+    }
+
+    // Swap-with-last removal. The bullet previously at the end now lives at i.
+    public void removeAt(int i) {
+        int last = --count;
+        if (i != last) {
+            x[i] = x[last];
+            y[i] = y[last];
+            vx[i] = vx[last];
+            vy[i] = vy[last];
+            friendly[i] = friendly[last];
+            alive[i] = alive[last];
+            bounces[i] = bounces[last];
+        }
+    }
+
+    // Drops every bullet whose alive flag has been cleared
+    public void removeDead() {
+        int i = 0;
+        while (i < count) {
+            if (alive[i])
+                i++;
+            else
+                removeAt(i);
+        }
+    }
+
+    // Makes this pool an exact copy of the first other.size() bullets
+    public void copyFrom(BulletPool other) {
+        int n = other.count;
+        if (n > capacity)
+            throw new IllegalArgumentException("pool too small: " + capacity + " < " + n);
+
+        System.arraycopy(other.x, 0, x, 0, n);
+        System.arraycopy(other.y, 0, y, 0, n);
+        System.arraycopy(other.vx, 0, vx, 0, n);
+        System.arraycopy(other.vy, 0, vy, 0, n);
+        System.arraycopy(other.friendly, 0, friendly, 0, n);
+        System.arraycopy(other.alive, 0, alive, 0, n);
+        System.arraycopy(other.bounces, 0, bounces, 0, n);
+        count = n;
+        moved = other.moved;
+    }
+
+    public void clear() {
+        count = 0;
+        moved = 0;
+    }
+}
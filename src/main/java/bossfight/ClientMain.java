@@ -0,0 +1,138 @@
+package bossfight;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+
+import static org.lwjgl.glfw.GLFW.GLFW_FALSE;
+import static org.lwjgl.glfw.GLFW.GLFW_RESIZABLE;
+import static org.lwjgl.glfw.GLFW.GLFW_TRUE;
+import static org.lwjgl.glfw.GLFW.GLFW_VISIBLE;
+import static org.lwjgl.glfw.GLFW.glfwCreateWindow;
+import static org.lwjgl.glfw.GLFW.glfwDefaultWindowHints;
+import static org.lwjgl.glfw.GLFW.glfwDestroyWindow;
+import static org.lwjgl.glfw.GLFW.glfwGetFramebufferSize;
+import static org.lwjgl.glfw.GLFW.glfwInit;
+import static org.lwjgl.glfw.GLFW.glfwMakeContextCurrent;
+import static org.lwjgl.glfw.GLFW.glfwPollEvents;
+import static org.lwjgl.glfw.GLFW.glfwSetFramebufferSizeCallback;
+import static org.lwjgl.glfw.GLFW.glfwShowWindow;
+import static org.lwjgl.glfw.GLFW.glfwSwapBuffers;
+import static org.lwjgl.glfw.GLFW.glfwSwapInterval;
+import static org.lwjgl.glfw.GLFW.glfwTerminate;
+import static org.lwjgl.glfw.GLFW.glfwWindowHint;
+import static org.lwjgl.glfw.GLFW.glfwWindowShouldClose;
+import org.lwjgl.opengl.GL;
+import static org.lwjgl.opengl.GL11.GL_BLEND;
+import static org.lwjgl.opengl.GL11.GL_COLOR_BUFFER_BIT;
+import static org.lwjgl.opengl.GL11.GL_ONE_MINUS_SRC_ALPHA;
+import static org.lwjgl.opengl.GL11.GL_SRC_ALPHA;
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_2D;
+import static org.lwjgl.opengl.GL11.glBlendFunc;
+import static org.lwjgl.opengl.GL11.glClear;
+import static org.lwjgl.opengl.GL11.glClearColor;
+import static org.lwjgl.opengl.GL11.glEnable;
+import static org.lwjgl.opengl.GL11.glViewport;
+import static org.lwjgl.system.MemoryUtil.NULL;
+
+// Thin co-op client: sends the keyboard to a GameServer and draws whatever
+// snapshot came back last. No simulation runs here; the Game is only used
+// for its renderer.
+//
+//   mvn exec:java -Dexec.mainClass=bossfight.ClientMain -Dexec.args="localhost 27960"
+public class ClientMain {
+
+    private long window;
+    private int width = 1280;
+    private int height = 720;
+
+    // The window's drawable size in pixels, which on a high-DPI screen isn't
+    // width x height; render() blits the scaled scene to it
+    private int framebufferWidth, framebufferHeight;
+
+    public static void main(String[] args) throws IOException {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : NetProtocol.DEFAULT_PORT;
+        new ClientMain().run(new InetSocketAddress(host, port));
+    }
+
+    public void run(InetSocketAddress server) throws IOException {
+        if (!glfwInit())
+            throw new IllegalStateException("Unable to initialize GLFW");
+
+        glfwDefaultWindowHints();
+        glfwWindowHint(GLFW_VISIBLE, GLFW_FALSE);
+        glfwWindowHint(GLFW_RESIZABLE, GLFW_TRUE);
+        window = glfwCreateWindow(width, height, "Boss Fight (co-op " + server + ")", NULL, NULL);
+        if (window == NULL)
+            throw new RuntimeException("Failed to create window");
+
+        int[] fbw = new int[1], fbh = new int[1];
+        glfwGetFramebufferSize(window, fbw, fbh);
+        framebufferWidth = fbw[0];
+        framebufferHeight = fbh[0];
+
+        glfwSetFramebufferSizeCallback(window, (win, w, h) -> {
+            if (w == 0 || h == 0)
+                return;
+            width = w;
+            height = h;
+            framebufferWidth = w;
+            framebufferHeight = h;
+            glViewport(0, 0, width, height);
+        });
+
+        glfwMakeContextCurrent(window);
+        glfwSwapInterval(1);
+        glfwShowWindow(window);
+
+        GL.createCapabilities();
+        glEnable(GL_BLEND);
+        glBlendFunc(GL_SRC_ALPHA, GL_ONE_MINUS_SRC_ALPHA);
+        glEnable(GL_TEXTURE_2D);
+
+        Game game = HeadlessRunner.newHeadlessGame(() -> 0);
+        game.initGraphics();
+
+        try (NetClient client = new NetClient(server, Game.MAX_BULLETS)) {
+            loop(game, client);
+        } finally {
+            game.dispose();
+            glfwDestroyWindow(window);
+            glfwTerminate();
+        }
+    }
+
+    private void loop(Game game, NetClient client) throws IOException {
+        GlfwInput keys = new GlfwInput(window);
+        FrameSnapshot snapshot = game.newSnapshot();
+        boolean loaded = false;
+
+        while (!glfwWindowShouldClose(window)) {
+            glfwPollEvents();
+
+            int buttons = keys.poll();
+            if (InputSource.held(buttons, InputSource.QUIT))
+                break;
+            client.sendInput(buttons);
+            client.receive();
+
+            glClearColor(0.1f, 0.1f, 0.12f, 1f);
+            glClear(GL_COLOR_BUFFER_BIT);
+
+            if (!loaded && (loaded = game.pollLoading())) {
+                snapshot.playerSprite = game.playerSprite;
+                snapshot.bossSprite = game.bossSprite;
+            }
+
+            NetState state = client.latest();
+            if (!loaded || state == null) {
+                game.renderLoading(width, height);
+            } else {
+                state.toSnapshot(snapshot, client.slot(), client.dt());
+                game.render(snapshot, 1f, framebufferWidth, framebufferHeight);
+            }
+
+            glfwSwapBuffers(window);
+        }
+    }
+}
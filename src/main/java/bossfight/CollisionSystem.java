@@ -0,0 +1,35 @@
+package bossfight;
+
+// Puts every live World collider, and every player with lives left, into
+// the bullet broadphase. Hits come back with the World as target and the
+// entity id as tag, with how far each moved this tick for the swept test.
+// The boss isn't in it; Game sweeps it against the bullets separately.
+public final class CollisionSystem {
+
+    // What a player needs to be in the broadphase
+    private static final int PLAYER = Archetype.PILOT | Archetype.POSITION | Archetype.BOUNDS
+            | Archetype.FACTION;
+
+    private CollisionSystem() {
+    }
+
+    // Returns how many went in
+    public static int insert(World world, SpatialHash broadphase) {
+        int n = 0;
+        for (int k = 0; k < world.archetypeCount(); k++) {
+            Archetype a = world.archetype(k);
+            boolean pilots = a.has(PLAYER);
+            if (!pilots && !a.has(Archetype.COLLIDER))
+                continue;
+
+            for (int i = 0; i < a.count; i++) {
+                if (!a.alive[i] || pilots && a.lives[i] <= 0)
+                    continue;
+                broadphase.insert(a.x[i], a.y[i], a.w[i], a.h[i],
+                        a.x[i] - a.prevX[i], a.y[i] - a.prevY[i], a.faction[i], world, a.id[i]);
+                n++;
+            }
+        }
+        return n;
+    }
+}
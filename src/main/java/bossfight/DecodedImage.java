@@ -0,0 +1,31 @@
+package bossfight;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+import org.lwjgl.BufferUtils;
+import org.lwjgl.stb.STBImage;
+
+// RGBA8 pixels decoded by stb_image, bottom row first like Texture expects.
+// Decoding touches no GL state, so it can run on any thread; free() the
+// pixels once they're uploaded or copied.
+record DecodedImage(ByteBuffer pixels, int width, int height) {
+
+  static DecodedImage decode(String path) {
+    IntBuffer w = BufferUtils.createIntBuffer(1);
+    IntBuffer h = BufferUtils.createIntBuffer(1);
+    IntBuffer comp = BufferUtils.createIntBuffer(1);
+
+    // Per-thread flag, so parallel decodes don't race on it
+    STBImage.stbi_set_flip_vertically_on_load_thread(1);
+    ByteBuffer image = STBImage.stbi_load(path, w, h, comp, 4);
+    if (image == null)
+      throw new RuntimeException("Failed to load texture: " + path);
+
+    return new DecodedImage(image, w.get(0), h.get(0));
+  }
+
+  void free() {
+    STBImage.stbi_image_free(pixels);
+  }
+}
@@ -1,7 +0,0 @@
-package bossfight;
-
-public abstract class Entity {
-  public float x, y;
-  public float width, height;
-  public Texture texture;
-}
@@ -0,0 +1,7 @@
+package bossfight;
+
+// Which side an entity or bullet is on. Bullets only hit the other side.
+public enum Faction {
+  PLAYER,
+  ENEMY
+}
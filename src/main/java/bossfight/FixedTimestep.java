@@ -0,0 +1,44 @@
+package bossfight;
+
+// Turns variable frame times into a whole number of fixed simulation ticks.
+//
+// Leftover time carries over to the next frame, and alpha() says how far the
+// display is between the last two ticks, for render interpolation. If a frame
+// needs more than maxTicksPerFrame ticks the excess time is dropped, so one
+// slow frame can't snowball into ever longer catch-up frames.
+public class FixedTimestep {
+
+    public final float dt;
+    private final double step;
+    private final int maxTicksPerFrame;
+
+    private double accumulator = 0;
+
+    public FixedTimestep(int ticksPerSecond, int maxTicksPerFrame) {
+        if (ticksPerSecond <= 0 || maxTicksPerFrame <= 0)
+            throw new IllegalArgumentException("tick rate and catch-up cap must be positive");
+
+        this.step = 1.0 / ticksPerSecond;
+        this.dt = (float) step;
+        this.maxTicksPerFrame = maxTicksPerFrame;
+    }
+
+    // Adds elapsed real time and returns how many ticks to run this frame
+    public int advance(double elapsedSeconds) {
+        accumulator += Math.max(0, elapsedSeconds);
+
+        int ticks = (int) (accumulator / step);
+        if (ticks > maxTicksPerFrame) {
+            ticks = maxTicksPerFrame;
+            accumulator = 0;
+        } else {
+            accumulator -= ticks * step;
+        }
+        return ticks;
+    }
+
+    // 0..1 between the previous tick's state and the current one
+    public float alpha() {
+        return (float) Math.min(1.0, accumulator / step);
+    }
+}
@@ -0,0 +1,62 @@
+package bossfight;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+// One frame's breakdown, recorded by FrameProfiler. Shows up in JDK Mission
+// Control under Boss Fight when running with -XX:StartFlightRecording.
+@Name("bossfight.Frame")
+@Label("Frame")
+@Category("Boss Fight")
+@Description("Time spent in each part of a frame")
+@StackTrace(false)
+class FrameEvent extends jdk.jfr.Event {
+
+    @Label("Frame Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long frame;
+
+    @Label("Input")
+    @Timespan(Timespan.NANOSECONDS)
+    long input;
+
+    @Label("Player Update")
+    @Timespan(Timespan.NANOSECONDS)
+    long player;
+
+    @Label("Bullet Update")
+    @Timespan(Timespan.NANOSECONDS)
+    long bullets;
+
+    @Label("Boss AI")
+    @Timespan(Timespan.NANOSECONDS)
+    long boss;
+
+    @Label("Collisions")
+    @Timespan(Timespan.NANOSECONDS)
+    long collisions;
+
+    @Label("Render")
+    @Timespan(Timespan.NANOSECONDS)
+    long render;
+
+    @Label("Swap")
+    @Timespan(Timespan.NANOSECONDS)
+    long swap;
+
+    @Label("Live Bullets")
+    int liveBullets;
+
+    @Label("Allocated")
+    @DataAmount(DataAmount.BYTES)
+    long allocated;
+
+    @Label("Simulation Allocated")
+    @DataAmount(DataAmount.BYTES)
+    long simAllocated;
+}
@@ -0,0 +1,276 @@
+package bossfight;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+// Per-frame timing of the main loop's sections, plus live bullets and bytes
+// allocated on the main thread.
+//
+// Keeps a rolling window of frames for the on-screen overlay (F3), commits a
+// FrameEvent to JFR each frame, and can append every frame to a CSV file.
+// Sections can be entered several times per frame (one per simulation tick);
+// their times add up.
+//
+// With a simulation thread, that thread has a profiler of its own which
+// publish()es running totals into each FrameSnapshot; merge() on the main
+// profiler adds whatever the ticks spent since the last snapshot it saw to
+// the current frame, and counts their allocations separately.
+public class FrameProfiler {
+
+    public enum Section {
+        INPUT,
+        PLAYER,
+        BULLETS,
+        BOSS,
+        COLLISIONS,
+        RENDER,
+        SWAP
+    }
+
+    private static final Section[] SECTIONS = Section.values();
+
+    // Shared do-nothing profiler for headless runs and benchmarks
+    public static final FrameProfiler NONE = new FrameProfiler(0);
+
+    // How often the overlay text is rebuilt, in frames
+    private static final int OVERLAY_REFRESH = 15;
+
+    private final boolean enabled;
+    private final int historySize;
+
+    private final long[] started = new long[SECTIONS.length];
+    private final long[] current = new long[SECTIONS.length];
+    private long frameStart;
+    private long allocStart;
+
+    // Running totals for publish(), and the last ones merge() took in
+    private final long[] totals = new long[SECTIONS.length];
+    private final long[] merged = new long[SECTIONS.length];
+    private long mergedAlloc;
+    private long simAllocated;
+
+    // Rolling history, indexed [frame % historySize]
+    private final long[][] sectionHistory;
+    private final long[] frameHistory;
+    private final long[] allocHistory;
+    private final long[] simAllocHistory;
+    private final int[] bulletHistory;
+    private long frames = 0;
+
+    private final long[] sortScratch;
+
+    private final com.sun.management.ThreadMXBean threads;
+
+    private PrintWriter csv;
+
+    private boolean overlayVisible = false;
+    private final String[] overlayLines = new String[SECTIONS.length + 3];
+
+    // historySize frames are kept for percentiles; 0 disables everything
+    public FrameProfiler(int historySize) {
+        this.enabled = historySize > 0;
+        this.historySize = Math.max(1, historySize);
+
+        sectionHistory = new long[SECTIONS.length][this.historySize];
+        frameHistory = new long[this.historySize];
+        allocHistory = new long[this.historySize];
+        simAllocHistory = new long[this.historySize];
+        bulletHistory = new int[this.historySize];
+        sortScratch = new long[this.historySize];
+
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (enabled && bean instanceof com.sun.management.ThreadMXBean sun
+                && sun.isThreadAllocatedMemorySupported()) {
+            sun.setThreadAllocatedMemoryEnabled(true);
+            threads = sun;
+        } else {
+            threads = null;
+        }
+
+        Arrays.fill(overlayLines, "");
+    }
+
+    // Appends one line per frame to the given file from now on
+    public void openCsv(Path file) throws IOException {
+        csv = new PrintWriter(Files.newBufferedWriter(file));
+        StringBuilder header = new StringBuilder("frame,frame_ns");
+        for (Section s : SECTIONS)
+            header.append(',').append(s.name().toLowerCase()).append("_ns");
+        header.append(",bullets,allocated_bytes,sim_allocated_bytes");
+        csv.println(header);
+    }
+
+    public void beginFrame() {
+        if (!enabled)
+            return;
+
+        Arrays.fill(current, 0);
+        simAllocated = 0;
+        allocStart = allocatedBytes();
+        frameStart = System.nanoTime();
+    }
+
+    public void begin(Section s) {
+        if (enabled)
+            started[s.ordinal()] = System.nanoTime();
+    }
+
+    public void end(Section s) {
+        if (!enabled)
+            return;
+        long t = System.nanoTime() - started[s.ordinal()];
+        current[s.ordinal()] += t;
+        totals[s.ordinal()] += t;
+    }
+
+    // Simulation thread side: stamps the section times and bytes allocated
+    // by this thread so far into a snapshot about to be published
+    public void publish(FrameSnapshot s) {
+        if (!enabled)
+            return;
+        System.arraycopy(totals, 0, s.sectionTotals, 0, totals.length);
+        s.allocatedTotal = allocatedBytes();
+    }
+
+    // Main thread side: adds what the simulation did since the previous
+    // snapshot seen to this frame. Seeing the same snapshot again adds
+    // nothing, and if several were published in between they're all counted.
+    public void merge(FrameSnapshot s) {
+        if (!enabled)
+            return;
+        for (int i = 0; i < SECTIONS.length; i++) {
+            current[i] += s.sectionTotals[i] - merged[i];
+            merged[i] = s.sectionTotals[i];
+        }
+        simAllocated += s.allocatedTotal - mergedAlloc;
+        mergedAlloc = s.allocatedTotal;
+    }
+
+    public void endFrame(int liveBullets) {
+        if (!enabled)
+            return;
+
+        long frameTime = System.nanoTime() - frameStart;
+        long allocated = allocatedBytes() - allocStart;
+
+        int slot = (int) (frames % historySize);
+        for (int i = 0; i < SECTIONS.length; i++)
+            sectionHistory[i][slot] = current[i];
+        frameHistory[slot] = frameTime;
+        allocHistory[slot] = allocated;
+        simAllocHistory[slot] = simAllocated;
+        bulletHistory[slot] = liveBullets;
+
+        FrameEvent event = new FrameEvent();
+        if (event.shouldCommit()) {
+            event.frame = frameTime;
+            event.input = current[Section.INPUT.ordinal()];
+            event.player = current[Section.PLAYER.ordinal()];
+            event.bullets = current[Section.BULLETS.ordinal()];
+            event.boss = current[Section.BOSS.ordinal()];
+            event.collisions = current[Section.COLLISIONS.ordinal()];
+            event.render = current[Section.RENDER.ordinal()];
+            event.swap = current[Section.SWAP.ordinal()];
+            event.liveBullets = liveBullets;
+            event.allocated = allocated;
+            event.simAllocated = simAllocated;
+            event.commit();
+        }
+
+        if (csv != null) {
+            csv.print(frames);
+            csv.print(',');
+            csv.print(frameTime);
+            for (long t : current) {
+                csv.print(',');
+                csv.print(t);
+            }
+            csv.print(',');
+            csv.print(liveBullets);
+            csv.print(',');
+            csv.print(allocated);
+            csv.print(',');
+            csv.println(simAllocated);
+        }
+
+        frames++;
+
+        if (overlayVisible && frames % OVERLAY_REFRESH == 0)
+            refreshOverlay();
+    }
+
+    // Nanoseconds at percentile p (0..100) over the rolling window
+    public long percentile(Section s, double p) {
+        return percentile(sectionHistory[s.ordinal()], p);
+    }
+
+    public long framePercentile(double p) {
+        return percentile(frameHistory, p);
+    }
+
+    public boolean isOverlayVisible() {
+        return overlayVisible;
+    }
+
+    public void toggleOverlay() {
+        overlayVisible = !overlayVisible;
+        if (overlayVisible)
+            refreshOverlay();
+    }
+
+    // Overlay text, rebuilt a few times a second while visible
+    public String[] overlayLines() {
+        return overlayLines;
+    }
+
+    public void close() {
+        if (csv != null) {
+            csv.close();
+            csv = null;
+        }
+    }
+
+    private long percentile(long[] samples, double p) {
+        int n = (int) Math.min(frames, historySize);
+        if (n == 0)
+            return 0;
+
+        System.arraycopy(samples, 0, sortScratch, 0, n);
+        Arrays.sort(sortScratch, 0, n);
+        int index = (int) Math.ceil(p / 100.0 * n) - 1;
+        return sortScratch[Math.max(0, Math.min(n - 1, index))];
+    }
+
+    private void refreshOverlay() {
+        int n = (int) Math.min(frames, historySize);
+        long alloc = 0, simAlloc = 0, bullets = 0;
+        for (int i = 0; i < n; i++) {
+            alloc += allocHistory[i];
+            simAlloc += simAllocHistory[i];
+            bullets = Math.max(bullets, bulletHistory[i]);
+        }
+        int last = (int) ((frames + historySize - 1) % historySize);
+
+        overlayLines[0] = String.format("%-10s %6s %6s %6s  (ms, last %d frames)", "", "p50", "p95", "p99", n);
+        overlayLines[1] = row("frame", frameHistory);
+        for (Section s : SECTIONS)
+            overlayLines[2 + s.ordinal()] = row(s.name().toLowerCase(), sectionHistory[s.ordinal()]);
+        overlayLines[overlayLines.length - 1] = String.format(
+                "bullets %d (max %d)   alloc %.1f KB/frame, sim %.1f KB/frame",
+                bulletHistory[last], bullets, n == 0 ? 0.0 : alloc / 1024.0 / n, n == 0 ? 0.0 : simAlloc / 1024.0 / n);
+    }
+
+    private String row(String label, long[] samples) {
+        return String.format("%-10s %6.2f %6.2f %6.2f", label,
+                percentile(samples, 50) / 1e6, percentile(samples, 95) / 1e6, percentile(samples, 99) / 1e6);
+    }
+
+    private long allocatedBytes() {
+        return threads != null ? threads.getCurrentThreadAllocatedBytes() : 0;
+    }
+}
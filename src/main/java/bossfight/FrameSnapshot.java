@@ -0,0 +1,84 @@
+package bossfight;
+
+import java.util.Arrays;
+
+// Everything Game.render needs from one simulation tick, copied out so the
+// renderer never reads live simulation state.
+//
+// World sprites (players and boss included) are flattened into plain
+// arrays, bullets and particles are copies of their pools, and the HUD gets
+// the few numbers it shows. Storage is allocated up front (World arrays
+// grow if needed) so capturing a frame doesn't allocate.
+public class FrameSnapshot {
+
+    final Viewport view = new Viewport(1, 1);
+    final WallGrid walls = new WallGrid(Game.TILE_SIZE);
+
+    final BulletPool bullets;
+    final ParticlePool particles = new ParticlePool(Game.MAX_PARTICLES);
+
+    float lastDt;
+    boolean gameOver;
+    boolean quitRequested;
+    long ticks;
+
+    // HUD: the local player's lives and the boss's health and phase
+    int lives;
+    float bossHealth = 1f;
+    BossSystem.Phase bossPhase = BossSystem.Phase.PHASE1;
+
+    // What NetState.toSnapshot draws players and the boss with; a client
+    // sets these once its textures are in
+    TextureRegion playerSprite, bossSprite;
+
+    // When the tick finished, System.nanoTime(), and the tick length, for
+    // working out interpolation on another thread
+    long capturedAt;
+    long tickNanos;
+
+    // The simulation thread's profiler totals so far (see
+    // FrameProfiler.publish), for the main thread's overlay and CSV
+    final long[] sectionTotals = new long[FrameProfiler.Section.values().length];
+    long allocatedTotal;
+
+    // World entities with sprites, and the colour each is tinted
+    int worldCount;
+    float[] worldX = new float[64], worldY = new float[64];
+    float[] worldPrevX = new float[64], worldPrevY = new float[64];
+    float[] worldW = new float[64], worldH = new float[64];
+    TextureRegion[] worldSprite = new TextureRegion[64];
+    float[] worldR = new float[64], worldG = new float[64], worldB = new float[64];
+
+    public FrameSnapshot(int bulletCapacity) {
+        bullets = new BulletPool(bulletCapacity);
+    }
+
+    // How far the display is past this frame's tick at time now, 0..1.
+    // For a snapshot read on the render thread.
+    public float alpha(long now) {
+        if (tickNanos <= 0)
+            return 1f;
+        return Math.min(1f, Math.max(0f, (now - capturedAt) / (float) tickNanos));
+    }
+
+    public int bulletCount() {
+        return bullets.size();
+    }
+
+    void ensureWorldCapacity(int n) {
+        if (n <= worldX.length)
+            return;
+
+        int size = Integer.highestOneBit(n - 1) << 1;
+        worldX = Arrays.copyOf(worldX, size);
+        worldY = Arrays.copyOf(worldY, size);
+        worldPrevX = Arrays.copyOf(worldPrevX, size);
+        worldPrevY = Arrays.copyOf(worldPrevY, size);
+        worldW = Arrays.copyOf(worldW, size);
+        worldH = Arrays.copyOf(worldH, size);
+        worldSprite = Arrays.copyOf(worldSprite, size);
+        worldR = Arrays.copyOf(worldR, size);
+        worldG = Arrays.copyOf(worldG, size);
+        worldB = Arrays.copyOf(worldB, size);
+    }
+}
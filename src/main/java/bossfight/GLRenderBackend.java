@@ -0,0 +1,113 @@
+package bossfight;
+
+import java.nio.FloatBuffer;
+
+import static org.lwjgl.opengl.GL11.GL_COLOR_ARRAY;
+import static org.lwjgl.opengl.GL11.GL_FLOAT;
+import static org.lwjgl.opengl.GL11.GL_QUADS;
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_COORD_ARRAY;
+import static org.lwjgl.opengl.GL11.GL_VERTEX_ARRAY;
+import static org.lwjgl.opengl.GL11.glColor4f;
+import static org.lwjgl.opengl.GL11.glColorPointer;
+import static org.lwjgl.opengl.GL11.glDisableClientState;
+import static org.lwjgl.opengl.GL11.glDrawArrays;
+import static org.lwjgl.opengl.GL11.glEnableClientState;
+import static org.lwjgl.opengl.GL11.glTexCoordPointer;
+import static org.lwjgl.opengl.GL11.glVertexPointer;
+import static org.lwjgl.opengl.GL15.GL_ARRAY_BUFFER;
+import static org.lwjgl.opengl.GL15.GL_STATIC_DRAW;
+import static org.lwjgl.opengl.GL15.GL_STREAM_DRAW;
+import static org.lwjgl.opengl.GL15.glBindBuffer;
+import static org.lwjgl.opengl.GL15.glBufferData;
+import static org.lwjgl.opengl.GL15.glBufferSubData;
+import static org.lwjgl.opengl.GL15.glDeleteBuffers;
+import static org.lwjgl.opengl.GL15.glGenBuffers;
+
+// Streams each flush into one VBO and draws it with client-state arrays
+public class GLRenderBackend implements RenderBackend {
+
+  private static final int STRIDE = SpriteBatch.FLOATS_PER_VERTEX * Float.BYTES;
+
+  private final int vbo;
+
+  public GLRenderBackend() {
+    vbo = glGenBuffers();
+  }
+
+  @Override
+  public void upload(FloatBuffer vertices, int floatCount) {
+    glBindBuffer(GL_ARRAY_BUFFER, vbo);
+
+    vertices.position(0).limit(floatCount);
+    glBufferData(GL_ARRAY_BUFFER, vertices, GL_STREAM_DRAW);
+    vertices.clear();
+
+    setPointers();
+  }
+
+  @Override
+  public void drawQuads(Texture texture, int firstQuad, int quadCount) {
+    texture.bind();
+    glDrawArrays(GL_QUADS, firstQuad * 4, quadCount * 4);
+  }
+
+  @Override
+  public void endFlush() {
+    glDisableClientState(GL_COLOR_ARRAY);
+    glDisableClientState(GL_TEXTURE_COORD_ARRAY);
+    glDisableClientState(GL_VERTEX_ARRAY);
+
+    // Client-side pointers (e.g. the text renderer) need no buffer bound
+    glBindBuffer(GL_ARRAY_BUFFER, 0);
+
+    // The current colour is undefined after drawing with a colour array
+    glColor4f(1f, 1f, 1f, 1f);
+  }
+
+  @Override
+  public int createStaticBuffer(int floatCapacity) {
+    int buffer = glGenBuffers();
+    glBindBuffer(GL_ARRAY_BUFFER, buffer);
+    glBufferData(GL_ARRAY_BUFFER, (long) floatCapacity * Float.BYTES, GL_STATIC_DRAW);
+    glBindBuffer(GL_ARRAY_BUFFER, 0);
+    return buffer;
+  }
+
+  @Override
+  public void updateStaticBuffer(int buffer, int floatOffset, FloatBuffer data, int floatCount) {
+    glBindBuffer(GL_ARRAY_BUFFER, buffer);
+    data.position(0).limit(floatCount);
+    glBufferSubData(GL_ARRAY_BUFFER, (long) floatOffset * Float.BYTES, data);
+    data.clear();
+    glBindBuffer(GL_ARRAY_BUFFER, 0);
+  }
+
+  @Override
+  public void drawStaticQuads(int buffer, Texture texture, int quadCount) {
+    glBindBuffer(GL_ARRAY_BUFFER, buffer);
+    setPointers();
+    texture.bind();
+    glDrawArrays(GL_QUADS, 0, quadCount * 4);
+    endFlush();
+  }
+
+  @Override
+  public void deleteStaticBuffer(int buffer) {
+    glDeleteBuffers(buffer);
+  }
+
+  @Override
+  public void dispose() {
+    glDeleteBuffers(vbo);
+  }
+
+  // x, y, u, v, r, g, b, a from the currently bound GL_ARRAY_BUFFER
+  private void setPointers() {
+    glEnableClientState(GL_VERTEX_ARRAY);
+    glEnableClientState(GL_TEXTURE_COORD_ARRAY);
+    glEnableClientState(GL_COLOR_ARRAY);
+    glVertexPointer(2, GL_FLOAT, STRIDE, 0L);
+    glTexCoordPointer(2, GL_FLOAT, STRIDE, 2L * Float.BYTES);
+    glColorPointer(4, GL_FLOAT, STRIDE, 4L * Float.BYTES);
+  }
+}
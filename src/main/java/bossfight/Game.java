@@ -1,89 +1,250 @@
 package bossfight;
 
 import java.nio.ByteBuffer;
-import java.util.ArrayList;
+import java.nio.file.Path;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
 
 import org.lwjgl.BufferUtils;
-import static org.lwjgl.glfw.GLFW.GLFW_KEY_ESCAPE;
-import static org.lwjgl.glfw.GLFW.GLFW_KEY_R;
-import static org.lwjgl.glfw.GLFW.GLFW_KEY_SPACE;
-import static org.lwjgl.glfw.GLFW.GLFW_PRESS;
-import static org.lwjgl.glfw.GLFW.glfwGetKey;
-import static org.lwjgl.glfw.GLFW.glfwSetWindowShouldClose;
-import static org.lwjgl.opengl.GL11.GL_FLOAT;
+
+import static org.lwjgl.opengl.GL11.GL_COLOR_BUFFER_BIT;
 import static org.lwjgl.opengl.GL11.GL_MODELVIEW;
 import static org.lwjgl.opengl.GL11.GL_PROJECTION;
-import static org.lwjgl.opengl.GL11.GL_QUADS;
-import static org.lwjgl.opengl.GL11.GL_TEXTURE_2D;
-import static org.lwjgl.opengl.GL11.GL_VERTEX_ARRAY;
-import static org.lwjgl.opengl.GL11.glBegin;
-import static org.lwjgl.opengl.GL11.glColor3f;
-import static org.lwjgl.opengl.GL11.glColor4f;
-import static org.lwjgl.opengl.GL11.glDisable;
-import static org.lwjgl.opengl.GL11.glDisableClientState;
-import static org.lwjgl.opengl.GL11.glDrawArrays;
-import static org.lwjgl.opengl.GL11.glEnable;
-import static org.lwjgl.opengl.GL11.glEnableClientState;
-import static org.lwjgl.opengl.GL11.glEnd;
+import static org.lwjgl.opengl.GL11.glClear;
+import static org.lwjgl.opengl.GL11.glClearColor;
 import static org.lwjgl.opengl.GL11.glLoadIdentity;
 import static org.lwjgl.opengl.GL11.glMatrixMode;
 import static org.lwjgl.opengl.GL11.glOrtho;
-import static org.lwjgl.opengl.GL11.glPopMatrix;
-import static org.lwjgl.opengl.GL11.glPushMatrix;
-import static org.lwjgl.opengl.GL11.glVertex2f;
-import static org.lwjgl.opengl.GL11.glVertexPointer;
-import org.lwjgl.stb.STBEasyFont;
 
 public class Game {
 
     int width, height;
-    long window;
 
-    Texture tilesetTexture;
-    Texture playerTexture;
-    Texture bossTexture;
-    Texture bulletTexture;
+    // Visible area; bullets outside it (plus a margin) are dropped
+    Viewport view;
+
+    // Solid tiles bullets bounce off or die on, and what TileMap draws
+    static final int TILE_SIZE = 64;
+    WallGrid walls;
+
+    // Resize from the window, applied at the start of the next tick.
+    // Packed width << 32 | height, -1 when there is none.
+    private final AtomicLong pendingResize = new AtomicLong(-1);
+
+    InputSource input;
+    SimClock clock = new SimClock();
+
+    // Everything is drawn from one packed texture
+    static final List<TextureAtlas.Source> ATLAS_SOURCES = List.of(
+            new TextureAtlas.Source("tileset", "assets/tileset.png", 8, 8),
+            new TextureAtlas.Source("player", "assets/player.png"),
+            new TextureAtlas.Source("boss", "assets/boss.png"),
+            new TextureAtlas.Source("bullet", "assets/bullet.png"));
+
+    static final Path ATLAS_CACHE = Path.of(System.getProperty("bossfight.atlasCache", "target/atlas.cache"));
+    // Most GL upload time pollLoading() spends per frame
+    static final long LOADING_UPLOAD_BUDGET_NANOS = 4_000_000L;
+
+    TextureAtlas atlas;
+    // Set while the atlas is loading in the background; see pollLoading()
+    private AssetLoader loader;
+    private CompletableFuture<TextureAtlas> atlasLoad;
+    // 1x1 white stand-in for the atlas' white region on the loading screen
+    private Texture loadingWhite;
+    private float loadingProgress = 0f;
+    TextureRegion playerSprite;
+    TextureRegion bossSprite;
+    TextureRegion bulletSprite;
+    TextureRegion whiteSprite;
 
     TileMap tileMap;
 
-    Player player;
-    Boss boss;
-    List<Bullet> bullets = new ArrayList<>();
+    // World entity ids of the player and the boss
+    int player, boss;
+
+    // Co-op players beyond the first (player slot k + 1 for guest k), each
+    // with its own input; -1 for a free slot. Only the server fills these;
+    // slots stay put while others join and leave.
+    static final int MAX_GUESTS = 7;
+    final int[] guests = new int[MAX_GUESTS];
+    final InputSource[] guestInputs = new InputSource[MAX_GUESTS];
+
+    // This tick's buttons for each player slot, for PlayerSystem
+    private final int[] slotButtons = new int[MAX_GUESTS + 1];
+
+    // Boss attacks, loaded from assets/patterns.txt
+    PatternSet patterns = PatternSet.defaults();
+
+    // Upper bound on simultaneous bullets; shots beyond this are dropped.
+    // -Dbossfight.maxBullets raises it for stress runs (pools past
+    // Bullet.parallelThreshold integrate on several cores). A server and
+    // its clients need the same value.
+    static final int MAX_BULLETS = Integer.getInteger("bossfight.maxBullets", 16384);
+    BulletPool bullets = new BulletPool(MAX_BULLETS);
+
+    // Hit and death effects. Past this many the oldest are overwritten.
+    static final int MAX_PARTICLES = 4096;
+    final ParticlePool particles = new ParticlePool(MAX_PARTICLES);
+
+    // The players, the boss and what it summons on changing phase (see
+    // summon)
+    World world = new World(256);
+
+    SpatialHash broadphase = new SpatialHash(128f, 256);
+
+    // Bullet indices hit this tick, sized to the pool
+    int[] hits = new int[0];
+
+    SpriteBatch batch;
+    TextCache text;
+
+    // Scene resolution below the window's (-Dbossfight.renderScale). All
+    // null when the scene draws straight to the window; gpuTimer only when
+    // the scale is adaptive.
+    RenderScale renderScale;
+    private RenderTarget sceneTarget;
+    private GpuTimer gpuTimer;
 
     float shootCooldown = 0.25f;
-    float shootTimer = 0f;
     boolean gameOver = false;
     boolean restartRequested = false;
+    boolean quitRequested = false;
+
+    // Console messages on game over / restart; off for batch runs
+    boolean logEvents = true;
+
+    // Length of the most recent tick, used to interpolate bullets
+    float lastDt = 0f;
+
+    // Times the tick sections in update(), on whichever thread runs it
+    FrameProfiler profiler = FrameProfiler.NONE;
+    // Whose overlay render() draws: the main thread's, which with a
+    // simulation thread is not the one above
+    FrameProfiler overlayProfiler = FrameProfiler.NONE;
+
+    // Size of the frame being drawn, from its snapshot
+    private int viewWidth, viewHeight;
 
-    public Game(int width, int height, long window) {
+    // Creates the simulation only. No GL calls happen until initGraphics(),
+    // so a Game can be stepped headlessly without a window or context.
+    public Game(int width, int height, InputSource input) {
         this.width = width;
         this.height = height;
-        this.window = window;
+        this.input = input;
 
-        tilesetTexture = new Texture("assets/tileset.png");
-        playerTexture = new Texture("assets/player.png");
-        bossTexture = new Texture("assets/boss.png");
-        bulletTexture = new Texture("assets/bullet.png");
+        view = new Viewport(width, height);
 
-        GameAssets.bulletTexture = bulletTexture;
+        walls = new WallGrid(TILE_SIZE);
+        walls.fit(width, height);
+        tileMap = new TileMap(walls);
 
-        int tileSize = 64;
-        int cols = (int) Math.ceil(width / (float) tileSize);
-        int rows = (int) Math.ceil(height / (float) tileSize);
-        tileMap = new TileMap(tilesetTexture, cols, rows, tileSize, 8, 8);
+        Arrays.fill(guests, -1);
+        spawnFighters();
+    }
 
-        player = new Player(width * 0.25f, height * 0.5f, playerTexture);
-        boss = new Boss(width * 0.75f, height * 0.5f, bossTexture);
+    // Creates the renderer and starts loading textures in the background.
+    // Needs a current GL context. Call pollLoading() each frame (drawing
+    // renderLoading() meanwhile) until it returns true.
+    public void initGraphics() {
+        batch = new SpriteBatch(new GLRenderBackend(), 8192);
+        text = new TextCache(32);
+
+        ByteBuffer white = BufferUtils.createByteBuffer(4);
+        white.put(0, (byte) -1).put(1, (byte) -1).put(2, (byte) -1).put(3, (byte) -1);
+        loadingWhite = new Texture(white, 1, 1);
+        whiteSprite = new TextureRegion(loadingWhite);
+
+        loader = new AssetLoader();
+        atlasLoad = TextureAtlas.loadAsync(ATLAS_SOURCES, ATLAS_CACHE, loader);
+
+        renderScale = RenderScale.fromProperties();
+        if (renderScale != null) {
+            sceneTarget = new RenderTarget();
+            if (renderScale.isAdaptive())
+                gpuTimer = new GpuTimer();
+        }
+    }
+
+    // GL thread: runs any finished uploads and, once the atlas is in, hands
+    // out the sprites. Returns true when everything is loaded.
+    public boolean pollLoading() {
+        if (loader == null)
+            return true;
+
+        loader.pump(LOADING_UPLOAD_BUDGET_NANOS);
+        // Loads are added as earlier ones finish, so keep the bar from going back
+        loadingProgress = Math.max(loadingProgress, loader.progress());
+        if (!atlasLoad.isDone())
+            return false;
+
+        atlas = atlasLoad.join();
+        playerSprite = atlas.region("player");
+        bossSprite = atlas.region("boss");
+        bulletSprite = atlas.region("bullet");
+        whiteSprite = atlas.region(TextureAtlas.WHITE);
+
+        tileMap.setTileset(atlas.cells("tileset", TILE_SIZE));
+        // Everything spawned before now has null sprites
+        for (int k = 0; k < world.archetypeCount(); k++) {
+            Archetype a = world.archetype(k);
+            if (!a.has(Archetype.SPRITE))
+                continue;
+            for (int i = 0; i < a.count; i++)
+                a.sprite[i] = a.has(Archetype.PILOT) ? playerSprite : bossSprite;
+        }
+
+        loadingWhite.dispose();
+        loadingWhite = null;
+        loader.shutdown();
+        loader = null;
+        atlasLoad = null;
+        return true;
+    }
+
+    // Progress bar for while pollLoading() is still returning false
+    public void renderLoading(int w, int h) {
+        viewWidth = w;
+        viewHeight = h;
+
+        glMatrixMode(GL_PROJECTION);
+        glLoadIdentity();
+        glOrtho(0, w, 0, h, -1, 1);
+
+        glMatrixMode(GL_MODELVIEW);
+        glLoadIdentity();
+
+        float barWidth = w * 0.5f;
+        float barHeight = 16f;
+        fillRect(w / 2f, h / 2f, barWidth, barHeight, 0.2f, 0.2f, 0.2f, 1f);
+        float filled = loadingProgress * barWidth;
+        fillRect((w - barWidth + filled) / 2f, h / 2f, filled, barHeight, 0.9f, 0.9f, 0.9f, 1f);
+        drawText(w / 2f - 30, h / 2f - 24, "LOADING");
+
+        batch.flush();
+        text.endFrame();
     }
 
     public void update(float dt) {
 
-        if (glfwGetKey(window, GLFW_KEY_ESCAPE) == GLFW_PRESS)
-            glfwSetWindowShouldClose(window, true);
+        long resize = pendingResize.getAndSet(-1);
+        if (resize != -1)
+            resize((int) (resize >>> 32), (int) resize);
+
+        clock.advance(dt);
+        lastDt = dt;
+        profiler.begin(FrameProfiler.Section.INPUT);
+        int buttons = input.poll();
+        profiler.end(FrameProfiler.Section.INPUT);
+
+        MovementSystem.savePrevious(world);
+
+        if (InputSource.held(buttons, InputSource.QUIT))
+            quitRequested = true;
 
         if (gameOver) {
-            if (glfwGetKey(window, GLFW_KEY_R) == GLFW_PRESS) {
+            if (InputSource.held(buttons, InputSource.RESTART)) {
                 restartRequested = true;
             }
 
@@ -93,116 +254,409 @@ public class Game {
             return;
         }
 
-        player.update(dt, window, width, height);
+        profiler.begin(FrameProfiler.Section.PLAYER);
+        // Guests move and shoot like the main player, but ignore quit and
+        // restart: whoever runs the game decides those
+        slotButtons[0] = buttons;
+        for (int i = 0; i < MAX_GUESTS; i++)
+            slotButtons[i + 1] = guests[i] >= 0 ? guestInputs[i].poll() : 0;
+        PlayerSystem.run(world, dt, slotButtons, bullets, shootCooldown, width, height);
+        profiler.end(FrameProfiler.Section.PLAYER);
+
+        profiler.begin(FrameProfiler.Section.BULLETS);
+        Bullet.update(bullets, dt, view, walls);
+        particles.update(dt);
+        profiler.end(FrameProfiler.Section.BULLETS);
+
+        profiler.begin(FrameProfiler.Section.BOSS);
+        float targetX = world.x(player), targetY = world.y(player);
+        BossSystem.Phase phase = BossSystem.phase(world, boss);
+        BossSystem.run(world, dt, (float) clock.time(), bullets, patterns, targetX, targetY, height);
+        BossSystem.Phase now = BossSystem.phase(world, boss);
+        if (now != phase) {
+            phaseBurst(now);
+            summon(now);
+        }
+        GunnerSystem.run(world, dt, bullets, patterns, now, targetX, targetY);
+        MovementSystem.run(world, dt, width, height);
+        profiler.end(FrameProfiler.Section.BOSS);
+
+        profiler.begin(FrameProfiler.Section.COLLISIONS);
+        checkCollisions();
+        profiler.end(FrameProfiler.Section.COLLISIONS);
 
-        shootTimer = Math.max(0, shootTimer - dt);
-        if (glfwGetKey(window, GLFW_KEY_SPACE) == GLFW_PRESS && shootTimer == 0) {
-            bullets.add(player.shoot(bulletTexture));
-            shootTimer = shootCooldown;
+        // 🔹 If every player is out of lives, mark game over
+        if (!PlayerSystem.anyAlive(world)) {
+            gameOver = true;
+            if (logEvents)
+                System.out.println("GAME OVER");
         }
+    }
 
-        bullets.forEach(b -> b.update(dt));
-        bullets.removeIf(b -> !b.alive);
+    // Adds a co-op player next to the first one. Returns its guest slot, or
+    // -1 if they're all taken.
+    int addGuest(InputSource guestInput) {
+        for (int i = 0; i < MAX_GUESTS; i++) {
+            if (guests[i] < 0) {
+                guests[i] = newGuest(i);
+                guestInputs[i] = guestInput;
+                return i;
+            }
+        }
+        return -1;
+    }
 
-        boss.update(dt, player, bullets, width, height);
+    void removeGuest(int slot) {
+        if (guests[slot] >= 0) {
+            world.kill(guests[slot]);
+            world.removeDead();
+        }
+        guests[slot] = -1;
+        guestInputs[slot] = null;
+    }
 
-        checkCollisions();
+    // Guests line up above and below the first player's start
+    private int newGuest(int slot) {
+        float offset = ((slot >> 1) + 1) * 60f * ((slot & 1) == 0 ? 1 : -1);
+        return Prefabs.player(world, width * 0.25f, height * 0.5f + offset, playerSprite, slot + 1);
+    }
 
-        // 🔹 If player out of lives, mark game over
-        if (player.getLives() <= 0) {
-            gameOver = true;
-            System.out.println("GAME OVER");
+    // The player, the boss and a fresh body for each guest slot in use, into
+    // an empty world
+    private void spawnFighters() {
+        player = Prefabs.player(world, width * 0.25f, height * 0.5f, playerSprite, 0);
+        boss = Prefabs.boss(world, width * 0.75f, height * 0.5f, bossSprite, patterns);
+        for (int i = 0; i < MAX_GUESTS; i++) {
+            if (guests[i] >= 0)
+                guests[i] = newGuest(i);
         }
     }
 
-    private void checkCollisions() {
-        // Player bullets hit boss
-        for (Bullet b : bullets) {
-            if (b.friendly && b.alive &&
-                    rectOverlap(b, boss)) {
-                b.alive = false;
-                boss.takeDamage(5f);
+    // Safe to call from any thread; takes effect on the next tick
+    public void requestResize(int newWidth, int newHeight) {
+        pendingResize.set((long) newWidth << 32 | (newHeight & 0xFFFFFFFFL));
+    }
+
+    // Re-lays the arena out for a new window size. The player clamps to the
+    // new bounds on its next update; the boss keeps its place relative to
+    // the right edge.
+    void resize(int newWidth, int newHeight) {
+        width = Math.max(1, newWidth);
+        height = Math.max(1, newHeight);
+        view.resize(width, height);
+        walls.fit(width, height);
+
+        Archetype a = world.archetypeOf(boss);
+        int i = world.indexOf(boss);
+        a.x[i] = a.prevX[i] = width * 0.75f;
+    }
+
+    public boolean isGameOver() {
+        return gameOver;
+    }
+
+    public boolean isBossDefeated() {
+        return BossSystem.health01(world, boss) <= 0f;
+    }
+
+    public boolean isQuitRequested() {
+        return quitRequested;
+    }
+
+    // Hash of everything the simulation carries from one tick to the next.
+    // Two games fed the same inputs must agree on this every tick.
+    public long stateHash() {
+        long h = StateHash.SEED;
+        h = StateHash.mix(h, clock.ticks());
+        h = StateHash.mix(h, width);
+        h = StateHash.mix(h, height);
+        h = StateHash.mix(h, clock.time());
+        h = StateHash.mix(h, gameOver);
+        h = world.hashState(h);
+
+        int n = bullets.size();
+        h = StateHash.mix(h, n);
+        for (int i = 0; i < n; i++) {
+            h = StateHash.mix(h, bullets.x[i]);
+            h = StateHash.mix(h, bullets.y[i]);
+            h = StateHash.mix(h, bullets.vx[i]);
+            h = StateHash.mix(h, bullets.vy[i]);
+            h = StateHash.mix(h, bullets.friendly[i]);
+            h = StateHash.mix(h, bullets.bounces[i]);
+        }
+        return h;
+    }
+
+    // The boss changed phase: a flash in the new phase's health bar colour
+    private void phaseBurst(BossSystem.Phase phase) {
+        float x = world.x(boss), y = world.y(boss);
+        switch (phase) {
+            case PHASE1 -> particles.burst(x, y, 64, 360f, 0.9f, 8f, 0.2f, 0.7f, 0.2f);
+            case PHASE2 -> particles.burst(x, y, 64, 360f, 0.9f, 8f, 0.9f, 0.7f, 0f);
+            case ENRAGED -> particles.burst(x, y, 96, 420f, 1.0f, 8f, 0.9f, 0.2f, 0.2f);
+        }
+    }
+
+    // The boss calls in help on entering a phase: four minions in phase 2,
+    // then two gunners and two more minions once enraged. They fan out from
+    // the boss at fixed velocities so the fight stays deterministic. A
+    // patterns file without a "gunner" pattern gets plain minions instead.
+    private void summon(BossSystem.Phase phase) {
+        int gunner = patterns.find("gunner");
+        float x = world.x(boss), y = world.y(boss);
+        switch (phase) {
+            case PHASE2 -> {
+                Prefabs.minion(world, x, y, -160f, -120f, bossSprite);
+                Prefabs.minion(world, x, y, -160f, 120f, bossSprite);
+                Prefabs.minion(world, x, y, -90f, -200f, bossSprite);
+                Prefabs.minion(world, x, y, -90f, 200f, bossSprite);
+            }
+            case ENRAGED -> {
+                if (gunner >= 0) {
+                    Prefabs.gunner(world, x, y, -120f, -150f, bossSprite, gunner);
+                    Prefabs.gunner(world, x, y, -120f, 150f, bossSprite, gunner);
+                } else {
+                    Prefabs.minion(world, x, y, -120f, -150f, bossSprite);
+                    Prefabs.minion(world, x, y, -120f, 150f, bossSprite);
+                }
+                Prefabs.minion(world, x, y, -200f, -60f, bossSprite);
+                Prefabs.minion(world, x, y, -200f, 60f, bossSprite);
+            }
+            default -> {
             }
         }
+    }
 
-        // Boss bullets hit player
-        for (Bullet b : bullets) {
-            if (!b.friendly && b.alive &&
-                    rectOverlap(b, player)) {
-                b.alive = false;
-                player.takeHit();
+    // Returns the number of bullets that hit something
+    int checkCollisions() {
+        if (hits.length < bullets.capacity)
+            hits = new int[bullets.capacity];
+
+        // The boss is always there and is the one target of every friendly
+        // bullet, so it tests against them with the SIMD kernel rather than
+        // through the broadphase. Tests are swept over the tick, so at low
+        // tick rates a fast bullet can't step over a target between one
+        // position and the next.
+        Archetype b = world.archetypeOf(boss);
+        int bi = world.indexOf(boss);
+        int bossHits = BulletKernel.sweeps(bullets, true, lastDt, b.x[bi], b.y[bi], b.w[bi], b.h[bi],
+                b.x[bi] - b.prevX[bi], b.y[bi] - b.prevY[bi], hits);
+        for (int k = 0; k < bossHits; k++) {
+            int i = hits[k];
+            bullets.alive[i] = false;
+            particles.burst(bullets.x[i], bullets.y[i], 4, 200f, 0.3f, 4f, 1f, 0.85f, 0.3f);
+
+            if (BossSystem.takeDamage(b, bi, 5f))
+                particles.burst(b.x[bi], b.y[bi], 256, 500f, 1.5f, 9f, 1f, 0.6f, 0.2f);
+        }
+
+        int total = bossHits;
+
+        // Players and everything else: rebuild the broadphase from this
+        // tick's positions, so one pass over the bullets tests them all
+        broadphase.clear();
+        if (CollisionSystem.insert(world, broadphase) == 0)
+            return total;
+
+        int pairs = broadphase.findBulletHits(bullets, lastDt);
+        for (int k = 0; k < pairs; k++) {
+            int i = broadphase.pairBullet(k);
+
+            // A bullet overlapping two targets only hits the first one
+            if (!bullets.alive[i])
+                continue;
+            bullets.alive[i] = false;
+            total++;
+
+            if (broadphase.pairTarget(k) instanceof World w) {
+                int id = broadphase.pairTag(k);
+                Archetype a = w.archetypeOf(id);
+                int p = w.indexOf(id);
+                if (a.has(Archetype.PILOT)) {
+                    particles.burst(bullets.x[i], bullets.y[i], 8, 260f, 0.4f, 5f, 1f, 0.3f, 0.3f);
+                    if (PlayerSystem.takeHit(a, p))
+                        particles.burst(a.x[p], a.y[p], 48, 320f, 1.0f, 7f, 0.4f, 0.7f, 1f);
+                    continue;
+                }
+
+                boolean killed = w.damage(id, 5f);
+                particles.burst(bullets.x[i], bullets.y[i], killed ? 24 : 4, killed ? 300f : 200f,
+                        killed ? 0.7f : 0.3f, killed ? 6f : 4f, 1f, 0.85f, 0.3f);
             }
         }
+
+        world.removeDead();
+        return total;
+    }
+
+    // Copies what render() needs out of the simulation. On the threaded
+    // path this runs on the simulation thread at the end of each tick.
+    public void snapshot(FrameSnapshot s) {
+        s.view.copyFrom(view);
+        s.walls.copyFrom(walls);
+        s.lives = PlayerSystem.lives(world, player);
+        s.bossHealth = BossSystem.health01(world, boss);
+        s.bossPhase = BossSystem.phase(world, boss);
+        s.bullets.copyFrom(bullets);
+        s.particles.copyFrom(particles);
+        RenderSystem.capture(world, s);
+        s.lastDt = lastDt;
+        s.gameOver = gameOver;
+        s.quitRequested = quitRequested;
+        s.ticks = clock.ticks();
+    }
+
+    // -----------------------------
+    // SAVE / RESTORE
+    // -----------------------------
+
+    // A state sized for this game's pools
+    public GameState newState() {
+        return new GameState(bullets.capacity);
+    }
+
+    // Copies the whole simulation into s
+    public void save(GameState s) {
+        s.clock.copyFrom(clock);
+        s.width = width;
+        s.height = height;
+
+        s.player = player;
+        s.boss = boss;
+        System.arraycopy(guests, 0, s.guests, 0, MAX_GUESTS);
+        s.bullets.copyFrom(bullets);
+        s.walls.copyFrom(walls);
+        s.world.copyFrom(world);
+
+        s.gameOver = gameOver;
+        s.restartRequested = restartRequested;
+        s.quitRequested = quitRequested;
+        s.lastDt = lastDt;
+        s.savedTick = clock.ticks();
+    }
+
+    // Puts the simulation back exactly as it was at save(s); the next
+    // update() carries on from there. Guests keep their current input.
+    public void restore(GameState s) {
+        clock.copyFrom(s.clock);
+        if (width != s.width || height != s.height)
+            resize(s.width, s.height);
+
+        bullets.copyFrom(s.bullets);
+        walls.copyFrom(s.walls);
+        world.copyFrom(s.world);
+        player = s.player;
+        boss = s.boss;
+        for (int i = 0; i < MAX_GUESTS; i++) {
+            guests[i] = s.guests[i];
+            if (guests[i] < 0)
+                guestInputs[i] = null;
+            else if (guestInputs[i] == null)
+                // Back from before they left; idle until someone takes the slot
+                guestInputs[i] = () -> 0;
+        }
+
+        gameOver = s.gameOver;
+        restartRequested = s.restartRequested;
+        quitRequested = s.quitRequested;
+        lastDt = s.lastDt;
     }
 
-    private boolean rectOverlap(Entity a, Entity b) {
-        return Math.abs(a.x - b.x) * 2 < (a.width + b.width) &&
-                Math.abs(a.y - b.y) * 2 < (a.height + b.height);
+    // A snapshot sized for this game's pools
+    public FrameSnapshot newSnapshot() {
+        return new FrameSnapshot(bullets.capacity);
     }
 
-    public void render() {
+    // Draws a snapshot taken by snapshot(). alpha: 0..1 between the
+    // previous and the snapshot's tick. framebufferW/H is the window's size
+    // in pixels, which the scaled scene is sized from and stretched back to.
+    // Reads nothing from the live simulation, so it can run while another
+    // thread calls update().
+    public void render(FrameSnapshot s, float alpha, int framebufferW, int framebufferH) {
+        Viewport v = s.view;
+        viewWidth = v.width;
+        viewHeight = v.height;
+
+        if (gpuTimer != null) {
+            renderScale.sample(gpuTimer.poll());
+            gpuTimer.begin();
+        }
+
+        // Below full scale the scene goes to the offscreen target first.
+        // The projection is in world units, so it fits either size.
+        boolean scaled = renderScale != null && renderScale.scale() < RenderScale.MAX;
+        if (scaled) {
+            sceneTarget.ensure(renderScale.pixels(framebufferW), renderScale.pixels(framebufferH));
+            sceneTarget.bind();
+            glClearColor(0.1f, 0.1f, 0.12f, 1f);
+            glClear(GL_COLOR_BUFFER_BIT);
+        }
 
         glMatrixMode(GL_PROJECTION);
         glLoadIdentity();
-        glOrtho(0, width, 0, height, -1, 1);
+        glOrtho(v.x, v.x + v.width, v.y, v.y + v.height, -1, 1);
 
         glMatrixMode(GL_MODELVIEW);
         glLoadIdentity();
 
-        tileMap.render();
+        // The snapshot's copy of the walls, not the live one
+        tileMap.sync(s.walls);
+        tileMap.render(batch);
 
-        player.render();
-        boss.render();
-        bullets.forEach(Bullet::render);
+        RenderSystem.draw(s, batch, alpha);
+        Bullet.render(s.bullets, bulletSprite, batch, (1f - alpha) * s.lastDt, v);
+        s.particles.render(whiteSprite, batch, (1f - alpha) * s.lastDt, v);
 
-        drawBossHealthBar();
-        drawPlayerHealthBar();
+        if (scaled) {
+            batch.flush();
+            sceneTarget.blitToWindow(framebufferW, framebufferH);
+        }
 
-        glMatrixMode(GL_MODELVIEW);
-        glLoadIdentity();
+        // HUD shares the atlas texture, so it lands in the same draw call
+        // (unless the scene went offscreen), and is always at full resolution
+        drawBossHealthBar(s.bossHealth, s.bossPhase);
+        drawPlayerHealthBar(s.lives);
 
-        if (gameOver) {
+        if (s.gameOver) {
             // Dark panel
-            glDisable(GL_TEXTURE_2D);
-            glColor4f(0f, 0f, 0f, 0.6f);
-            drawRect(width / 2f, height / 2f, 400, 120);
-            glEnable(GL_TEXTURE_2D);
+            fillRect(viewWidth / 2f, viewHeight / 2f, 400, 120, 0f, 0f, 0f, 0.6f);
 
             // Text on top
-            drawText(width / 2f - 120, height / 2f + 10, "GAME OVER");
-            drawText(width / 2f - 180, height / 2f - 20, "Press R to restart");
+            drawText(viewWidth / 2f - 120, viewHeight / 2f + 10, "GAME OVER");
+            drawText(viewWidth / 2f - 180, viewHeight / 2f - 20, "Press R to restart");
 
         }
 
+        if (overlayProfiler.isOverlayVisible())
+            drawProfilerOverlay();
+
+        batch.flush();
+        text.endFrame();
+
+        if (gpuTimer != null)
+            gpuTimer.end();
     }
 
-    private void drawBossHealthBar() {
-        float barWidth = width * 0.6f;
+    private void drawBossHealthBar(float health, BossSystem.Phase phase) {
+        float barWidth = viewWidth * 0.6f;
         float barHeight = 20f;
-        float x = (width - barWidth) / 2f;
-        float y = height - 50;
+        float x = (viewWidth - barWidth) / 2f;
+        float y = viewHeight - 50;
 
-        glDisable(GL_TEXTURE_2D);
-        glColor3f(0.2f, 0.2f, 0.2f);
-        drawRect(x, y, barWidth, barHeight);
+        fillRect(x, y, barWidth, barHeight, 0.2f, 0.2f, 0.2f, 1f);
 
-        float filled = boss.getHealth01() * barWidth;
+        float filled = health * barWidth;
 
-        switch (boss.phase) {
-            case PHASE1 -> glColor3f(0.2f, 0.7f, 0.2f);
-            case PHASE2 -> glColor3f(0.9f, 0.7f, 0.0f);
-            case ENRAGED -> glColor3f(0.9f, 0.2f, 0.2f);
+        switch (phase) {
+            case PHASE1 -> fillRect(x, y, filled, barHeight, 0.2f, 0.7f, 0.2f, 1f);
+            case PHASE2 -> fillRect(x, y, filled, barHeight, 0.9f, 0.7f, 0.0f, 1f);
+            case ENRAGED -> fillRect(x, y, filled, barHeight, 0.9f, 0.2f, 0.2f, 1f);
         }
-
-        drawRect(x, y, filled, barHeight);
-        glColor3f(1f, 1f, 1f);
-        glEnable(GL_TEXTURE_2D);
     }
 
-    private void drawPlayerHealthBar() {
+    private void drawPlayerHealthBar(int lives) {
         // Simple lives-based bar (bottom-left)
-        int lives = player.getLives();
-        int maxLives = player.getMaxLives();
+        int maxLives = PlayerSystem.MAX_LIVES;
 
         float barWidth = 150f;
         float barHeight = 16f;
@@ -213,112 +667,79 @@ public class Game {
         float filled = barWidth * ratio;
 
         // Background
-        glDisable(GL_TEXTURE_2D);
-        glColor3f(0.2f, 0.2f, 0.2f);
-        drawRect(x, y, barWidth, barHeight);
+        fillRect(x, y, barWidth, barHeight, 0.2f, 0.2f, 0.2f, 1f);
 
         // Fill colour – goes from green → yellow → red
         if (ratio > 0.66f) {
-            glColor3f(0.2f, 0.8f, 0.2f);
+            fillRect(x, y, filled, barHeight, 0.2f, 0.8f, 0.2f, 1f);
         } else if (ratio > 0.33f) {
-            glColor3f(0.9f, 0.8f, 0.2f);
+            fillRect(x, y, filled, barHeight, 0.9f, 0.8f, 0.2f, 1f);
         } else {
-            glColor3f(0.9f, 0.2f, 0.2f);
+            fillRect(x, y, filled, barHeight, 0.9f, 0.2f, 0.2f, 1f);
         }
-
-        drawRect(x, y, filled, barHeight);
-
-        // Reset state
-        glEnable(GL_TEXTURE_2D);
-        glColor3f(1f, 1f, 1f);
     }
 
-    private void restartGame() {
-        System.out.println("Restarting game...");
-
-        // Reset player
-        player = new Player(width * 0.25f, height * 0.5f, playerTexture);
+    void restartGame() {
+        if (logEvents)
+            System.out.println("Restarting game...");
 
-        // Reset boss
-        boss = new Boss(width * 0.75f, height * 0.5f, bossTexture);
-
-        // Clear bullets
+        // Clear bullets and everything the fight spawned, then reset the
+        // player, guests and boss
         bullets.clear();
-
-        // Reset timers
-        shootTimer = 0f;
+        world.clear();
+        particles.clear();
+        spawnFighters();
 
         // Reset game state flags
         gameOver = false;
         restartRequested = false;
     }
 
-    public static void drawRect(float cx, float cy, float w, float h) {
-        float hw = w / 2, hh = h / 2;
-        glBegin(GL_QUADS);
-        glVertex2f(cx - hw, cy - hh);
-        glVertex2f(cx + hw, cy - hh);
-        glVertex2f(cx + hw, cy + hh);
-        glVertex2f(cx - hw, cy + hh);
-        glEnd();
+    // Solid rectangle centred on (cx, cy)
+    void fillRect(float cx, float cy, float w, float h, float r, float g, float b, float a) {
+        batch.setColor(r, g, b, a);
+        batch.draw(whiteSprite, cx, cy, w, h);
+        batch.resetColor();
     }
 
     // Draw text at (x, y) in pixels. (0,0) is top-left of the window here.
     // Colour is (r, g, b) in 0..1.
-    private void drawText(float x, float y, String text, float r, float g, float b) {
-        if (text == null || text.isEmpty())
-            return;
-
-        // Allocate buffer for vertices (STBEasyFont uses 16 bytes per quad)
-        ByteBuffer charBuffer = BufferUtils.createByteBuffer(text.length() * 270);
-
-        // -------- Save current matrices --------
-        glMatrixMode(GL_PROJECTION);
-        glPushMatrix();
-        glMatrixMode(GL_MODELVIEW);
-        glPushMatrix();
-
-        // -------- Set up a clean 2D, Y-down projection for text --------
-        glMatrixMode(GL_PROJECTION);
-        glLoadIdentity();
-        // NOTE: height, 0 => Y goes downwards, top-left origin
-        glOrtho(0, width, height, 0, -1, 1);
-
-        glMatrixMode(GL_MODELVIEW);
-        glLoadIdentity();
-
-        // Generate text geometry into the buffer
-        int numQuads = STBEasyFont.stb_easy_font_print(x, y, text, null, charBuffer);
-
-        // Untextured, coloured text
-        glDisable(GL_TEXTURE_2D);
-        glColor3f(r, g, b);
-
-        glEnableClientState(GL_VERTEX_ARRAY);
-        glVertexPointer(2, GL_FLOAT, 16, charBuffer);
-        glDrawArrays(GL_QUADS, 0, numQuads * 4);
-        glDisableClientState(GL_VERTEX_ARRAY);
+    private void drawText(float x, float y, String str, float r, float g, float b) {
+        text.draw(batch, whiteSprite, x, y, str, r, g, b, viewHeight);
+    }
 
-        // Restore state
-        glColor3f(1f, 1f, 1f);
-        glEnable(GL_TEXTURE_2D);
+    private void drawProfilerOverlay() {
+        String[] lines = overlayProfiler.overlayLines();
+        float lineHeight = 12f;
 
-        glMatrixMode(GL_MODELVIEW);
-        glPopMatrix();
-        glMatrixMode(GL_PROJECTION);
-        glPopMatrix();
-        glMatrixMode(GL_MODELVIEW); // leave it in modelview mode
+        // Text is placed Y-down from the top-left, rectangles Y-up
+        float panelH = lines.length * lineHeight + 12f;
+        fillRect(190f, viewHeight - (14f + panelH / 2f), 370f, panelH, 0f, 0f, 0f, 0.6f);
+        for (int i = 0; i < lines.length; i++)
+            drawText(10f, 20f + i * lineHeight, lines[i], 0.8f, 1f, 0.8f);
     }
 
     // Convenience overload: white text
-    private void drawText(float x, float y, String text) {
-        drawText(x, y, text, 1f, 1f, 1f);
+    private void drawText(float x, float y, String str) {
+        drawText(x, y, str, 1f, 1f, 1f);
     }
 
     public void dispose() {
-        tilesetTexture.dispose();
-        playerTexture.dispose();
-        bossTexture.dispose();
-        bulletTexture.dispose();
+        if (batch == null)
+            return; // headless, nothing was created
+
+        if (loader != null)
+            loader.shutdown();
+        if (loadingWhite != null)
+            loadingWhite.dispose();
+        if (atlas != null)
+            atlas.dispose();
+        tileMap.dispose();
+        if (sceneTarget != null)
+            sceneTarget.dispose();
+        if (gpuTimer != null)
+            gpuTimer.dispose();
+        text.dispose();
+        batch.dispose();
     }
 }
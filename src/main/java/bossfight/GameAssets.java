@@ -1,5 +0,0 @@
-package bossfight;
-
-public class GameAssets {
-  public static Texture bulletTexture;
-}
@@ -0,0 +1,339 @@
+package bossfight;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.SocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+// Authoritative co-op server: runs the simulation headlessly at a fixed
+// tick rate, takes each player's buttons over UDP and sends every client a
+// delta-compressed snapshot after each tick.
+//
+//   mvn exec:java -Dexec.mainClass=bossfight.GameServer -Dexec.args="27960 60"
+//
+// Args: [port] [tick rate in Hz] [bullet floor]. The bullet floor keeps at
+// least that many enemy bullets in the air, for load testing. Prints tick
+// time and bandwidth per client once a second.
+public class GameServer {
+
+    // Seconds a finished fight stays on screen before it restarts
+    private static final float RESTART_DELAY = 3f;
+
+    private static class Client {
+        final SocketAddress address;
+        final int slot;
+        final LatchedInput input = new LatchedInput();
+        int ackTick = -1;
+        long lastHeard;
+
+        // Since the last report
+        long bytesSent;
+        int snapshotsSent;
+        int fullSnapshots;
+
+        Client(SocketAddress address, int slot) {
+            this.address = address;
+            this.slot = slot;
+        }
+    }
+
+    final Game game;
+    private final FixedTimestep timestep;
+    private final DatagramChannel channel;
+    private final int bulletFloor;
+
+    private final Map<SocketAddress, Client> clients = new HashMap<>();
+    private final Client[] slots = new Client[NetState.MAX_PLAYERS];
+
+    // Quantized states of the last HISTORY ticks, indexed by tick % HISTORY
+    private final NetState[] history = new NetState[NetProtocol.HISTORY];
+
+    private final ByteBuffer receiveBuffer = ByteBuffer.allocate(NetProtocol.MAX_DATAGRAM);
+    private final ByteBuffer encodeBuffer;
+    private final ByteBuffer datagram = ByteBuffer.allocate(NetProtocol.MAX_DATAGRAM);
+
+    private float gameOverTime = 0f;
+    private int floorSpawns = 0;
+
+    // Tick and encode times over the current report window
+    private final long[] tickNanos = new long[4096];
+    private int tickSamples = 0;
+    private long encodeNanos = 0;
+    private int encodedTicks = 0;
+    private long reportStart;
+    private long last = 0;
+
+    private volatile boolean running = true;
+    boolean report = true;
+
+    public GameServer(int port, int tickRate, int bulletFloor) throws IOException {
+        this.bulletFloor = bulletFloor;
+        timestep = new FixedTimestep(tickRate, 5);
+
+        // Slot 0 is the game's own player; its input comes from whoever holds slot 0
+        game = HeadlessRunner.newHeadlessGame(() -> 0);
+        for (int i = 0; i < history.length; i++)
+            history[i] = new NetState(game.bullets.capacity);
+        encodeBuffer = ByteBuffer.allocate(SnapshotCodec.maxSize(game.bullets.capacity));
+
+        channel = DatagramChannel.open();
+        channel.setOption(StandardSocketOptions.SO_SNDBUF, NetProtocol.SOCKET_BUFFER);
+        channel.bind(new InetSocketAddress(port));
+        channel.configureBlocking(false);
+    }
+
+    public int port() throws IOException {
+        return ((InetSocketAddress) channel.getLocalAddress()).getPort();
+    }
+
+    public int clientCount() {
+        return clients.size();
+    }
+
+    // The quantized state sent for a tick, if still in history
+    NetState history(int tick) {
+        NetState s = history[Math.floorMod(tick, NetProtocol.HISTORY)];
+        return s.tick == tick ? s : null;
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    public void run() throws IOException {
+        long tickLength = (long) (timestep.dt * 1e9);
+        try {
+            while (running) {
+                step();
+                // Sleep until the next tick is due
+                LockSupport.parkNanos((long) ((1f - timestep.alpha()) * tickLength));
+            }
+        } finally {
+            channel.close();
+        }
+    }
+
+    // One pass of the server loop: read input, run the ticks that are due
+    // and send the result. run() calls this; a loopback test can drive it
+    // from its own thread instead.
+    void step() throws IOException {
+        long now = System.nanoTime();
+        if (last == 0) {
+            last = now;
+            reportStart = now;
+        }
+
+        receive();
+
+        int ticks = timestep.advance((now - last) / 1e9);
+        last = now;
+
+        for (int i = 0; i < ticks; i++) {
+            long start = System.nanoTime();
+            tick();
+            if (tickSamples < tickNanos.length)
+                tickNanos[tickSamples++] = System.nanoTime() - start;
+        }
+
+        // Only the newest state goes out after a catch-up batch
+        if (ticks > 0) {
+            long start = System.nanoTime();
+            broadcast();
+            encodeNanos += System.nanoTime() - start;
+            encodedTicks++;
+        }
+
+        dropSilentClients(now);
+        if (report && now - reportStart >= 1_000_000_000L)
+            report(now);
+    }
+
+    void close() throws IOException {
+        channel.close();
+    }
+
+    private void tick() {
+        game.update(timestep.dt);
+
+        if (game.isGameOver() || game.isBossDefeated()) {
+            gameOverTime += timestep.dt;
+            if (gameOverTime >= RESTART_DELAY) {
+                game.restartGame();
+                gameOverTime = 0f;
+            }
+        }
+
+        topUpBullets();
+        int tick = (int) game.clock.ticks();
+        history[Math.floorMod(tick, NetProtocol.HISTORY)]
+                .capture(game, history[Math.floorMod(tick - 1, NetProtocol.HISTORY)], timestep.dt);
+    }
+
+    // Rings of enemy bullets from the boss until there are bulletFloor live
+    private void topUpBullets() {
+        BulletPool pool = game.bullets;
+        while (pool.size() < bulletFloor && pool.size() < pool.capacity) {
+            double a = floorSpawns++ * 2.399963; // golden angle: spreads evenly
+            pool.spawn(game.world.x(game.boss), game.world.y(game.boss),
+                    (float) Math.cos(a) * 150f, (float) Math.sin(a) * 150f, false);
+        }
+    }
+
+    // -----------------------------
+    // NETWORK
+    // -----------------------------
+
+    private void receive() throws IOException {
+        while (true) {
+            receiveBuffer.clear();
+            SocketAddress from = channel.receive(receiveBuffer);
+            if (from == null)
+                return;
+            receiveBuffer.flip();
+            if (!receiveBuffer.hasRemaining())
+                continue;
+
+            byte type = receiveBuffer.get();
+            if (type == NetProtocol.BYE) {
+                Client c = clients.get(from);
+                if (c != null)
+                    disconnect(c);
+            } else if (type == NetProtocol.INPUT && receiveBuffer.remaining() >= NetProtocol.INPUT_SIZE - 1) {
+                Client c = clients.get(from);
+                if (c == null && (c = connect(from)) == null)
+                    continue;
+
+                // Packets can arrive out of order; never move the ack back
+                c.ackTick = Math.max(c.ackTick, receiveBuffer.getInt());
+                // Quit and restart are the server's call
+                c.input.latch(receiveBuffer.getInt() & ~(InputSource.QUIT | InputSource.RESTART));
+                c.lastHeard = System.nanoTime();
+            }
+        }
+    }
+
+    private Client connect(SocketAddress from) throws IOException {
+        int slot = -1;
+        for (int k = 0; k < slots.length && slot < 0; k++) {
+            if (slots[k] == null)
+                slot = k;
+        }
+        if (slot < 0) {
+            channel.send(ByteBuffer.wrap(new byte[] { NetProtocol.FULL }), from);
+            return null;
+        }
+
+        // Server slots mirror the game's guest slots, so addGuest lands in
+        // the same free slot found here
+        Client c = new Client(from, slot);
+        if (slot == 0)
+            game.input = c.input;
+        else
+            game.addGuest(c.input);
+
+        slots[slot] = c;
+        clients.put(from, c);
+        System.out.println("Player " + slot + " joined from " + from);
+        return c;
+    }
+
+    private void disconnect(Client c) {
+        clients.remove(c.address);
+        slots[c.slot] = null;
+        if (c.slot == 0)
+            game.input = () -> 0; // the main player stays in the fight, idle
+        else
+            game.removeGuest(c.slot - 1);
+        System.out.println("Player " + c.slot + " left");
+    }
+
+    private void dropSilentClients(long now) {
+        for (Client c : slots) {
+            if (c != null && now - c.lastHeard > NetProtocol.TIMEOUT_NANOS)
+                disconnect(c);
+        }
+    }
+
+    private void broadcast() throws IOException {
+        NetState cur = history((int) game.clock.ticks());
+        for (Client c : slots) {
+            if (c == null)
+                continue;
+
+            NetState base = c.ackTick >= 0 ? history(c.ackTick) : null;
+            encodeBuffer.clear();
+            SnapshotCodec.encode(base, cur, timestep.dt, encodeBuffer);
+            encodeBuffer.flip();
+
+            sendFragments(c, cur.tick);
+            c.snapshotsSent++;
+            if (base == null)
+                c.fullSnapshots++;
+        }
+    }
+
+    private void sendFragments(Client c, int tick) throws IOException {
+        int total = encodeBuffer.remaining();
+        int fragments = Math.max(1, (total + NetProtocol.FRAGMENT_PAYLOAD - 1) / NetProtocol.FRAGMENT_PAYLOAD);
+
+        for (int f = 0; f < fragments; f++) {
+            int from = f * NetProtocol.FRAGMENT_PAYLOAD;
+            int len = Math.min(NetProtocol.FRAGMENT_PAYLOAD, total - from);
+
+            datagram.clear();
+            datagram.put(NetProtocol.SNAPSHOT);
+            datagram.putInt(tick);
+            datagram.put((byte) c.slot);
+            datagram.putShort((short) f);
+            datagram.putShort((short) fragments);
+            datagram.put(datagram.position(), encodeBuffer, from, len);
+            datagram.position(datagram.position() + len);
+            datagram.flip();
+
+            c.bytesSent += datagram.remaining();
+            channel.send(datagram, c.address);
+        }
+    }
+
+    private void report(long now) {
+        double seconds = (now - reportStart) / 1e9;
+        Arrays.sort(tickNanos, 0, tickSamples);
+        long p50 = tickSamples == 0 ? 0 : tickNanos[tickSamples / 2];
+        long max = tickSamples == 0 ? 0 : tickNanos[tickSamples - 1];
+
+        System.out.printf("tick %d  players %d  bullets %d  tick p50 %.3f ms max %.3f ms  send %.3f ms/tick%n",
+                game.clock.ticks(), clients.size(), game.bullets.size(), p50 / 1e6, max / 1e6,
+                encodedTicks == 0 ? 0.0 : encodeNanos / 1e6 / encodedTicks);
+        for (Client c : slots) {
+            if (c == null)
+                continue;
+            System.out.printf("  player %d %-22s %7.1f KB/s  %6.0f B/snapshot  %d full%n",
+                    c.slot, c.address, c.bytesSent / 1024.0 / seconds,
+                    c.snapshotsSent == 0 ? 0.0 : c.bytesSent / (double) c.snapshotsSent, c.fullSnapshots);
+            c.bytesSent = 0;
+            c.snapshotsSent = 0;
+            c.fullSnapshots = 0;
+        }
+
+        tickSamples = 0;
+        encodeNanos = 0;
+        encodedTicks = 0;
+        reportStart = now;
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : NetProtocol.DEFAULT_PORT;
+        int tickRate = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+        int bulletFloor = args.length > 2 ? Integer.parseInt(args[2]) : 0;
+
+        GameServer server = new GameServer(port, tickRate, bulletFloor);
+        System.out.println("Listening on UDP port " + server.port());
+        server.run();
+    }
+}
@@ -0,0 +1,39 @@
+package bossfight;
+
+// A saved copy of everything Game.update reads and writes, for rollback and
+// for rewinding a fight while debugging. Get one from Game.newState(), then
+// Game.save() and Game.restore() copy into and out of it as often as you
+// like: all storage is allocated up front, so neither allocates (unless the
+// world outgrows what the state has seen).
+//
+// Not saved: input sources, pending resize requests, particles and
+// render-side state.
+public class GameState {
+
+    final SimClock clock = new SimClock();
+    int width, height;
+
+    // Players and boss live in the world; these are their entity ids
+    int player, boss;
+    final int[] guests = new int[Game.MAX_GUESTS];
+
+    final BulletPool bullets;
+    final WallGrid walls = new WallGrid(Game.TILE_SIZE);
+    final World world = new World(16);
+
+    boolean gameOver;
+    boolean restartRequested;
+    boolean quitRequested;
+    float lastDt;
+
+    // Tick the state was saved at, -1 before the first save
+    long savedTick = -1;
+
+    public GameState(int bulletCapacity) {
+        bullets = new BulletPool(bulletCapacity);
+    }
+
+    public long savedTick() {
+        return savedTick;
+    }
+}
@@ -0,0 +1,45 @@
+package bossfight;
+
+import static org.lwjgl.glfw.GLFW.GLFW_KEY_A;
+import static org.lwjgl.glfw.GLFW.GLFW_KEY_D;
+import static org.lwjgl.glfw.GLFW.GLFW_KEY_ESCAPE;
+import static org.lwjgl.glfw.GLFW.GLFW_KEY_R;
+import static org.lwjgl.glfw.GLFW.GLFW_KEY_S;
+import static org.lwjgl.glfw.GLFW.GLFW_KEY_SPACE;
+import static org.lwjgl.glfw.GLFW.GLFW_KEY_W;
+import static org.lwjgl.glfw.GLFW.GLFW_PRESS;
+import static org.lwjgl.glfw.GLFW.glfwGetKey;
+
+// Keyboard input from a GLFW window
+public class GlfwInput implements InputSource {
+
+    private final long window;
+
+    public GlfwInput(long window) {
+        this.window = window;
+    }
+
+    @Override
+    public int poll() {
+        int buttons = 0;
+        if (down(GLFW_KEY_W))
+            buttons |= UP;
+        if (down(GLFW_KEY_S))
+            buttons |= DOWN;
+        if (down(GLFW_KEY_A))
+            buttons |= LEFT;
+        if (down(GLFW_KEY_D))
+            buttons |= RIGHT;
+        if (down(GLFW_KEY_SPACE))
+            buttons |= FIRE;
+        if (down(GLFW_KEY_R))
+            buttons |= RESTART;
+        if (down(GLFW_KEY_ESCAPE))
+            buttons |= QUIT;
+        return buttons;
+    }
+
+    private boolean down(int key) {
+        return glfwGetKey(window, key) == GLFW_PRESS;
+    }
+}
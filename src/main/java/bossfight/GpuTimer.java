@@ -0,0 +1,65 @@
+package bossfight;
+
+import static org.lwjgl.opengl.GL15.GL_QUERY_RESULT;
+import static org.lwjgl.opengl.GL15.GL_QUERY_RESULT_AVAILABLE;
+import static org.lwjgl.opengl.GL15.glBeginQuery;
+import static org.lwjgl.opengl.GL15.glDeleteQueries;
+import static org.lwjgl.opengl.GL15.glEndQuery;
+import static org.lwjgl.opengl.GL15.glGenQueries;
+import static org.lwjgl.opengl.GL15.glGetQueryObjecti;
+import static org.lwjgl.opengl.GL33.GL_TIME_ELAPSED;
+import static org.lwjgl.opengl.GL33.glGetQueryObjecti64;
+
+// Measures how long the GPU spends on each frame with GL_TIME_ELAPSED
+// queries. Results arrive a few frames late, so there's a small ring of
+// queries in flight and poll() only reads ones the driver says are ready;
+// nothing here waits on the GPU. If every query is still busy a frame just
+// goes unmeasured.
+public class GpuTimer {
+
+  private static final int QUERIES = 4;
+
+  private final int[] queries = new int[QUERIES];
+  // Queries [oldest, oldest + pending) are in flight, oldest first
+  private int oldest = 0;
+  private int pending = 0;
+  private boolean timing = false;
+
+  public GpuTimer() {
+    for (int i = 0; i < QUERIES; i++)
+      queries[i] = glGenQueries();
+  }
+
+  // Starts timing this frame's GL commands, if a query is free
+  public void begin() {
+    if (pending == QUERIES)
+      return;
+    glBeginQuery(GL_TIME_ELAPSED, queries[(oldest + pending) % QUERIES]);
+    timing = true;
+  }
+
+  public void end() {
+    if (!timing)
+      return;
+    glEndQuery(GL_TIME_ELAPSED);
+    pending++;
+    timing = false;
+  }
+
+  // GPU time of the newest finished frame in nanoseconds, or -1 if none
+  // has finished since the last call
+  public long poll() {
+    long nanos = -1;
+    while (pending > 0 && glGetQueryObjecti(queries[oldest], GL_QUERY_RESULT_AVAILABLE) != 0) {
+      nanos = glGetQueryObjecti64(queries[oldest], GL_QUERY_RESULT);
+      oldest = (oldest + 1) % QUERIES;
+      pending--;
+    }
+    return nanos;
+  }
+
+  public void dispose() {
+    for (int q : queries)
+      glDeleteQueries(q);
+  }
+}
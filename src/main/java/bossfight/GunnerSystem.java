@@ -0,0 +1,31 @@
+package bossfight;
+
+// Fires a volley from every World entity with an AI component each time its
+// timer runs out (gunners, see Prefabs). The volley is the entity's
+// PatternSet pattern for the boss's current phase, aimed at the target.
+public final class GunnerSystem {
+
+    private GunnerSystem() {
+    }
+
+    public static void run(World world, float dt, BulletPool bullets, PatternSet patterns,
+            BossSystem.Phase phase, float targetX, float targetY) {
+        for (int k = 0; k < world.archetypeCount(); k++) {
+            Archetype a = world.archetype(k);
+            if (!a.has(Archetype.AI | Archetype.POSITION))
+                continue;
+
+            for (int i = 0; i < a.count; i++) {
+                if (!a.alive[i])
+                    continue;
+
+                a.aiTimer[i] -= dt;
+                if (a.aiTimer[i] <= 0f) {
+                    a.aiTimer[i] += a.aiInterval[i];
+                    patterns.pattern(a.aiPattern[i]).fire(phase, bullets, a.x[i], a.y[i],
+                            targetX - a.x[i], targetY - a.y[i], a.aiVolley[i]++);
+                }
+            }
+        }
+    }
+}
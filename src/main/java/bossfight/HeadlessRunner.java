@@ -0,0 +1,84 @@
+package bossfight;
+
+// Steps fights back to back with no window or GL context, as fast as the CPU
+// allows. For balance testing and soak runs on GPU-less machines:
+//
+//   mvn exec:java -Dexec.mainClass=bossfight.HeadlessRunner -Dexec.args="5000"
+//
+// Args: [fights] [tick rate in Hz] [max simulated seconds per fight]
+public class HeadlessRunner {
+
+    public static final int ARENA_WIDTH = 1280;
+    public static final int ARENA_HEIGHT = 720;
+
+    public enum Outcome {
+        WIN,
+        LOSS,
+        TIMEOUT
+    }
+
+    // Holds fire and sweeps up and down, switching every 45 ticks
+    static class WeaveInput implements InputSource {
+        private long tick = 0;
+
+        @Override
+        public int poll() {
+            int buttons = FIRE;
+            buttons |= ((tick++ / 45) % 2 == 0) ? UP : DOWN;
+            return buttons;
+        }
+    }
+
+    private final float dt;
+    private final long maxTicks;
+
+    public HeadlessRunner(float dt, long maxTicks) {
+        this.dt = dt;
+        this.maxTicks = maxTicks;
+    }
+
+    // Runs one fight to completion and returns how it ended
+    public Outcome runFight(Game game) {
+        for (long t = 0; t < maxTicks; t++) {
+            game.update(dt);
+
+            if (game.isGameOver())
+                return Outcome.LOSS;
+            if (game.isBossDefeated())
+                return Outcome.WIN;
+        }
+        return Outcome.TIMEOUT;
+    }
+
+    public static Game newHeadlessGame(InputSource input) {
+        Game game = new Game(ARENA_WIDTH, ARENA_HEIGHT, input);
+        game.logEvents = false;
+        return game;
+    }
+
+    public static void main(String[] args) {
+        int fights = args.length > 0 ? Integer.parseInt(args[0]) : 1000;
+        int tickRate = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+        int maxSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 300;
+
+        HeadlessRunner runner = new HeadlessRunner(1f / tickRate, (long) maxSeconds * tickRate);
+
+        int[] outcomes = new int[Outcome.values().length];
+        long ticks = 0;
+        long start = System.nanoTime();
+
+        for (int i = 0; i < fights; i++) {
+            Game game = newHeadlessGame(new WeaveInput());
+            outcomes[runner.runFight(game).ordinal()]++;
+            ticks += game.clock.ticks();
+        }
+
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d fights in %.2fs (%.0f fights/min, %.0f ticks/s)%n",
+                fights, seconds, fights / seconds * 60, ticks / seconds);
+        System.out.printf("wins %d, losses %d, timeouts %d%n",
+                outcomes[Outcome.WIN.ordinal()],
+                outcomes[Outcome.LOSS.ordinal()],
+                outcomes[Outcome.TIMEOUT.ordinal()]);
+    }
+}
@@ -0,0 +1,80 @@
+package bossfight;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+// Wraps the real input source and writes every tick's buttons to a replay
+// log, together with a hash of the game state after that tick.
+//
+// Log layout (big-endian):
+//   int magic "BFRP", int version, int arena width, int arena height,
+//   float dt, int hash of the initial state,
+//   then per tick: byte buttons, [int width, int height], int state hash
+//
+// The size is only there when the arena was resized during that tick, which
+// is flagged by RESIZED in the buttons byte.
+// Game.update must run with the same dt every tick, which the fixed timestep
+// guarantees.
+public class InputRecorder implements InputSource, Closeable {
+
+    static final int MAGIC = 0x42465250; // "BFRP"
+    static final int VERSION = 2;
+
+    // Set in a tick's buttons byte when a new arena size follows
+    static final int RESIZED = 0x80;
+
+    private final InputSource source;
+    private final DataOutputStream out;
+    private int lastButtons = 0;
+    private int lastWidth, lastHeight;
+
+    public InputRecorder(InputSource source, Path file, Game game, float dt) throws IOException {
+        this.source = source;
+
+        if (file.getParent() != null)
+            Files.createDirectories(file.getParent());
+        out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file)));
+
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(game.width);
+        out.writeInt(game.height);
+        lastWidth = game.width;
+        lastHeight = game.height;
+        out.writeFloat(dt);
+        out.writeInt(StateHash.fold(game.stateHash()));
+    }
+
+    @Override
+    public int poll() {
+        lastButtons = source.poll();
+        return lastButtons;
+    }
+
+    // Call after each Game.update
+    public void endTick(Game game) {
+        try {
+            if (game.width != lastWidth || game.height != lastHeight) {
+                lastWidth = game.width;
+                lastHeight = game.height;
+                out.writeByte(lastButtons | RESIZED);
+                out.writeInt(lastWidth);
+                out.writeInt(lastHeight);
+            } else {
+                out.writeByte(lastButtons);
+            }
+            out.writeInt(StateHash.fold(game.stateHash()));
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to write replay", e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
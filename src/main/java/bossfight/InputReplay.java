@@ -0,0 +1,153 @@
+package bossfight;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+// Plays back a log written by InputRecorder through a headless Game, as fast
+// as the CPU allows, and checks the state hash after every tick.
+//
+//   mvn exec:java -Dexec.mainClass=bossfight.InputReplay -Dexec.args="fight.replay 20"
+//
+// Args: <replay file> [times to play it]
+public class InputReplay implements InputSource {
+
+    public final int width, height;
+    public final float dt;
+    private final int initialHash;
+
+    private final byte[] buttons;
+    private final int[] hashes;
+    private int tick = 0;
+
+    // Arena resizes, in tick order: applied before update number resizeTick[k]
+    private final int[] resizeTick, resizeWidth, resizeHeight;
+
+    private InputReplay(int width, int height, float dt, int initialHash, byte[] buttons, int[] hashes,
+            int[] resizeTick, int[] resizeWidth, int[] resizeHeight) {
+        this.width = width;
+        this.height = height;
+        this.dt = dt;
+        this.initialHash = initialHash;
+        this.buttons = buttons;
+        this.hashes = hashes;
+        this.resizeTick = resizeTick;
+        this.resizeWidth = resizeWidth;
+        this.resizeHeight = resizeHeight;
+    }
+
+    public static InputReplay load(Path file) throws IOException {
+        byte[] data = Files.readAllBytes(file);
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(data));
+
+        if (in.readInt() != InputRecorder.MAGIC)
+            throw new IOException("Not a replay file: " + file);
+        int version = in.readInt();
+        if (version != InputRecorder.VERSION)
+            throw new IOException("Unsupported replay version " + version);
+
+        int width = in.readInt();
+        int height = in.readInt();
+        float dt = in.readFloat();
+        int initialHash = in.readInt();
+
+        // At most this many ticks; a tick cut short by a crash is dropped
+        int maxTicks = in.available() / 5;
+        byte[] buttons = new byte[maxTicks];
+        int[] hashes = new int[maxTicks];
+        int[] resizeTick = new int[4], resizeWidth = new int[4], resizeHeight = new int[4];
+        int resizes = 0;
+
+        int ticks = 0;
+        while (in.available() >= 5) {
+            int b = in.readUnsignedByte();
+            if ((b & InputRecorder.RESIZED) != 0) {
+                if (in.available() < 12)
+                    break;
+                if (resizes == resizeTick.length) {
+                    resizeTick = Arrays.copyOf(resizeTick, resizes * 2);
+                    resizeWidth = Arrays.copyOf(resizeWidth, resizes * 2);
+                    resizeHeight = Arrays.copyOf(resizeHeight, resizes * 2);
+                }
+                resizeTick[resizes] = ticks;
+                resizeWidth[resizes] = in.readInt();
+                resizeHeight[resizes] = in.readInt();
+                resizes++;
+            }
+            buttons[ticks] = (byte) (b & ~InputRecorder.RESIZED);
+            hashes[ticks] = in.readInt();
+            ticks++;
+        }
+
+        return new InputReplay(width, height, dt, initialHash,
+                Arrays.copyOf(buttons, ticks), Arrays.copyOf(hashes, ticks),
+                Arrays.copyOf(resizeTick, resizes), Arrays.copyOf(resizeWidth, resizes),
+                Arrays.copyOf(resizeHeight, resizes));
+    }
+
+    public int ticks() {
+        return buttons.length;
+    }
+
+    @Override
+    public int poll() {
+        return buttons[tick] & 0xFF;
+    }
+
+    // A fresh headless game set up like the recorded one, reading from this replay
+    public Game newGame() {
+        tick = 0;
+        Game game = new Game(width, height, this);
+        game.logEvents = false;
+        return game;
+    }
+
+    // Runs the whole replay. Returns the first tick whose state hash differs
+    // from the recording (0 is the initial state, tick n is after the nth
+    // update), or -1 if every tick matches.
+    public long verify(Game game) {
+        if (StateHash.fold(game.stateHash()) != initialHash)
+            return 0;
+
+        int nextResize = 0;
+        for (tick = 0; tick < buttons.length; tick++) {
+            if (nextResize < resizeTick.length && resizeTick[nextResize] == tick) {
+                game.requestResize(resizeWidth[nextResize], resizeHeight[nextResize]);
+                nextResize++;
+            }
+            game.update(dt);
+            if (StateHash.fold(game.stateHash()) != hashes[tick])
+                return tick + 1;
+        }
+        return -1;
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 1) {
+            System.err.println("Usage: InputReplay <replay file> [repeat]");
+            System.exit(2);
+        }
+        InputReplay replay = load(Path.of(args[0]));
+        int repeat = args.length > 1 ? Integer.parseInt(args[1]) : 1;
+
+        System.out.printf("%s: %dx%d, %d ticks at %.1f Hz (%.1fs of play)%n", args[0],
+                replay.width, replay.height, replay.ticks(), 1f / replay.dt, replay.ticks() * replay.dt);
+
+        long start = System.nanoTime();
+        for (int r = 0; r < repeat; r++) {
+            long diverged = replay.verify(replay.newGame());
+            if (diverged >= 0) {
+                System.out.println("DIVERGED at tick " + diverged
+                        + (diverged > 0 ? " (buttons " + (replay.buttons[(int) diverged - 1] & 0xFF) + ")" : " (initial state)"));
+                System.exit(1);
+            }
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+
+        System.out.printf("OK, %d run(s) in %.2fs (%.0f ticks/s, %.0fx real time)%n", repeat, seconds,
+                (double) replay.ticks() * repeat / seconds, replay.ticks() * replay.dt * repeat / seconds);
+    }
+}
@@ -0,0 +1,21 @@
+package bossfight;
+
+// Supplies the buttons held for one simulation tick as a bitmask.
+// Game polls exactly once per update, so a source can be a keyboard,
+// a script, a recording or a bot.
+public interface InputSource {
+
+    int UP = 1;
+    int DOWN = 1 << 1;
+    int LEFT = 1 << 2;
+    int RIGHT = 1 << 3;
+    int FIRE = 1 << 4;
+    int RESTART = 1 << 5;
+    int QUIT = 1 << 6;
+
+    int poll();
+
+    static boolean held(int buttons, int button) {
+        return (buttons & button) != 0;
+    }
+}
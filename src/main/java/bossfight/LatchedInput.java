@@ -0,0 +1,26 @@
+package bossfight;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Hands input from the main thread to the simulation thread. GLFW keys can
+// only be read on the main thread, so it latches them here once per frame
+// and the simulation polls this instead.
+//
+// A button pressed at any point since the last poll counts as held for that
+// poll, so a tap shorter than a tick (R to restart) isn't lost.
+public class LatchedInput implements InputSource {
+
+    private final AtomicInteger held = new AtomicInteger();
+    private final AtomicInteger pressed = new AtomicInteger();
+
+    // Main thread: the buttons down right now
+    public void latch(int buttons) {
+        held.set(buttons);
+        pressed.getAndAccumulate(buttons, (a, b) -> a | b);
+    }
+
+    @Override
+    public int poll() {
+        return held.get() | pressed.getAndSet(0);
+    }
+}
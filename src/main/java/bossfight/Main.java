@@ -1,12 +1,18 @@
 package bossfight;
 
+import java.io.IOException;
+import java.nio.file.Path;
+
 import static org.lwjgl.glfw.GLFW.GLFW_FALSE;
+import static org.lwjgl.glfw.GLFW.GLFW_KEY_F3;
+import static org.lwjgl.glfw.GLFW.GLFW_PRESS;
 import static org.lwjgl.glfw.GLFW.GLFW_RESIZABLE;
 import static org.lwjgl.glfw.GLFW.GLFW_TRUE;
 import static org.lwjgl.glfw.GLFW.GLFW_VISIBLE;
 import static org.lwjgl.glfw.GLFW.glfwCreateWindow;
 import static org.lwjgl.glfw.GLFW.glfwDefaultWindowHints;
 import static org.lwjgl.glfw.GLFW.glfwDestroyWindow;
+import static org.lwjgl.glfw.GLFW.glfwGetFramebufferSize;
 import static org.lwjgl.glfw.GLFW.glfwGetPrimaryMonitor;
 import static org.lwjgl.glfw.GLFW.glfwGetTime;
 import static org.lwjgl.glfw.GLFW.glfwGetVideoMode;
@@ -14,7 +20,9 @@ import static org.lwjgl.glfw.GLFW.glfwInit;
 import static org.lwjgl.glfw.GLFW.glfwMakeContextCurrent;
 import static org.lwjgl.glfw.GLFW.glfwPollEvents;
 import static org.lwjgl.glfw.GLFW.glfwSetFramebufferSizeCallback;
+import static org.lwjgl.glfw.GLFW.glfwSetKeyCallback;
 import static org.lwjgl.glfw.GLFW.glfwSetWindowPos;
+import static org.lwjgl.glfw.GLFW.glfwSetWindowShouldClose;
 import static org.lwjgl.glfw.GLFW.glfwShowWindow;
 import static org.lwjgl.glfw.GLFW.glfwSwapBuffers;
 import static org.lwjgl.glfw.GLFW.glfwSwapInterval;
@@ -41,8 +49,24 @@ public class Main {
     private int width = 1280;
     private int height = 720;
 
+    // The window's drawable size in pixels, which on a high-DPI screen isn't
+    // width x height; render() blits the scaled scene to it
+    private int framebufferWidth, framebufferHeight;
+
+    // Simulation rate, independent of the display refresh rate
+    private final int tickRate = Integer.getInteger("bossfight.tickRate", 60);
+    // Most ticks run in one frame before the simulation falls behind
+    private final int maxCatchUpTicks = Integer.getInteger("bossfight.maxCatchUpTicks", 5);
+
     private Game game;
 
+    // Simulation on its own thread; -Dbossfight.simThread=false for the old
+    // single-threaded loop
+    private final boolean simThread = Boolean.parseBoolean(System.getProperty("bossfight.simThread", "true"));
+
+    // F3 toggles the overlay; -Dbossfight.profile.csv=<file> logs every frame
+    private final FrameProfiler profiler = new FrameProfiler(240);
+
     public static void main(String[] args) {
         new Main().run();
     }
@@ -66,6 +90,11 @@ public class Main {
         if (window == NULL)
             throw new RuntimeException("Failed to create window");
 
+        int[] fbw = new int[1], fbh = new int[1];
+        glfwGetFramebufferSize(window, fbw, fbh);
+        framebufferWidth = fbw[0];
+        framebufferHeight = fbh[0];
+
         GLFWVidMode vid = glfwGetVideoMode(glfwGetPrimaryMonitor());
         if (vid != null) {
             glfwSetWindowPos(window,
@@ -74,9 +103,22 @@ public class Main {
         }
 
         glfwSetFramebufferSizeCallback(window, (win, w, h) -> {
-            width = Math.max(1, w);
-            height = Math.max(1, h);
+            // Minimising reports 0x0; keep the arena as it was
+            if (w == 0 || h == 0)
+                return;
+
+            width = w;
+            height = h;
+            framebufferWidth = w;
+            framebufferHeight = h;
             glViewport(0, 0, width, height);
+            if (game != null)
+                game.requestResize(width, height);
+        });
+
+        glfwSetKeyCallback(window, (win, key, scancode, action, mods) -> {
+            if (key == GLFW_KEY_F3 && action == GLFW_PRESS)
+                profiler.toggleOverlay();
         });
 
         glfwMakeContextCurrent(window);
@@ -91,25 +133,156 @@ public class Main {
     }
 
     private void loop() {
-        game = new Game(width, height, window);
+        GlfwInput keys = new GlfwInput(window);
+        LatchedInput latched = new LatchedInput();
 
-        double lastTime = glfwGetTime();
+        game = new Game(width, height, simThread ? latched : keys);
+        // -Dbossfight.bot=true plays by itself, for hands-off profiling runs
+        if (Boolean.getBoolean("bossfight.bot"))
+            game.input = new BotInput(game);
+        game.initGraphics();
+        if (!loadAssets())
+            return;
+
+        // The profiler belongs to the main thread. A simulation thread gets its
+        // own, whose tick sections and allocations come across in each
+        // snapshot and are merged into the main one's frames.
+        game.profiler = simThread ? new FrameProfiler(1) : profiler;
+        game.overlayProfiler = profiler;
+
+        String csv = System.getProperty("bossfight.profile.csv");
+        if (csv != null) {
+            try {
+                profiler.openCsv(Path.of(csv));
+            } catch (IOException e) {
+                System.err.println("Could not open profile CSV " + csv + ": " + e.getMessage());
+            }
+        }
+
+        FixedTimestep timestep = new FixedTimestep(tickRate, maxCatchUpTicks);
+
+        // -Dbossfight.record=<file> logs every tick's input for InputReplay
+        InputRecorder recorder = null;
+        String record = System.getProperty("bossfight.record");
+        if (record != null) {
+            try {
+                recorder = new InputRecorder(game.input, Path.of(record), game, timestep.dt);
+                game.input = recorder;
+            } catch (IOException e) {
+                System.err.println("Could not open replay file " + record + ": " + e.getMessage());
+            }
+        }
+
+        if (simThread)
+            loopThreaded(keys, latched, timestep, recorder);
+        else
+            loopSingleThreaded(timestep, recorder);
+
+        profiler.close();
+        if (recorder != null) {
+            try {
+                recorder.close();
+            } catch (IOException e) {
+                System.err.println("Could not finish replay file " + record + ": " + e.getMessage());
+            }
+        }
+        game.dispose();
+    }
+
+    // Keeps the window responsive with a progress bar while textures load
+    // in the background. Returns false if the window was closed meanwhile.
+    private boolean loadAssets() {
+        while (!game.pollLoading()) {
+            if (glfwWindowShouldClose(window)) {
+                game.dispose();
+                return false;
+            }
+            glfwPollEvents();
+
+            glClearColor(0.1f, 0.1f, 0.12f, 1f);
+            glClear(GL_COLOR_BUFFER_BIT);
+            game.renderLoading(width, height);
+            glfwSwapBuffers(window);
+        }
+        return true;
+    }
+
+    // Simulation on its own thread; this one only latches input and draws
+    // the newest snapshot
+    private void loopThreaded(GlfwInput keys, LatchedInput latched, FixedTimestep timestep,
+            InputRecorder recorder) {
+        SimulationThread sim = new SimulationThread(game, timestep, recorder);
+        sim.start();
 
         while (!glfwWindowShouldClose(window)) {
-            float dt = (float) (glfwGetTime() - lastTime);
-            lastTime = glfwGetTime();
+            profiler.beginFrame();
 
+            profiler.begin(FrameProfiler.Section.INPUT);
             glfwPollEvents();
-            game.update(dt);
+            latched.latch(keys.poll());
+            profiler.end(FrameProfiler.Section.INPUT);
 
+            FrameSnapshot snapshot = sim.latest();
+            profiler.merge(snapshot);
+            if (snapshot.quitRequested)
+                glfwSetWindowShouldClose(window, true);
+
+            profiler.begin(FrameProfiler.Section.RENDER);
             glClearColor(0.1f, 0.1f, 0.12f, 1f);
             glClear(GL_COLOR_BUFFER_BIT);
 
-            game.render();
+            game.render(snapshot, snapshot.alpha(System.nanoTime()), framebufferWidth, framebufferHeight);
+            profiler.end(FrameProfiler.Section.RENDER);
 
+            profiler.begin(FrameProfiler.Section.SWAP);
             glfwSwapBuffers(window);
+            profiler.end(FrameProfiler.Section.SWAP);
+
+            profiler.endFrame(snapshot.bulletCount());
         }
 
-        game.dispose();
+        sim.stop();
+    }
+
+    // Ticks and frames interleaved on the main thread
+    private void loopSingleThreaded(FixedTimestep timestep, InputRecorder recorder) {
+        FrameSnapshot snapshot = game.newSnapshot();
+        double lastTime = glfwGetTime();
+
+        while (!glfwWindowShouldClose(window)) {
+            double now = glfwGetTime();
+            double frameTime = now - lastTime;
+            lastTime = now;
+
+            profiler.beginFrame();
+
+            profiler.begin(FrameProfiler.Section.INPUT);
+            glfwPollEvents();
+            profiler.end(FrameProfiler.Section.INPUT);
+
+            int ticks = timestep.advance(frameTime);
+            for (int i = 0; i < ticks; i++) {
+                game.update(timestep.dt);
+                if (recorder != null)
+                    recorder.endTick(game);
+            }
+
+            game.snapshot(snapshot);
+            if (snapshot.quitRequested)
+                glfwSetWindowShouldClose(window, true);
+
+            profiler.begin(FrameProfiler.Section.RENDER);
+            glClearColor(0.1f, 0.1f, 0.12f, 1f);
+            glClear(GL_COLOR_BUFFER_BIT);
+
+            game.render(snapshot, timestep.alpha(), framebufferWidth, framebufferHeight);
+            profiler.end(FrameProfiler.Section.RENDER);
+
+            profiler.begin(FrameProfiler.Section.SWAP);
+            glfwSwapBuffers(window);
+            profiler.end(FrameProfiler.Section.SWAP);
+
+            profiler.endFrame(snapshot.bulletCount());
+        }
     }
 }
@@ -0,0 +1,51 @@
+package bossfight;
+
+// Saves last tick's positions for interpolation and moves everything with a
+// velocity, bouncing off the arena edges.
+public final class MovementSystem {
+
+    private MovementSystem() {
+    }
+
+    // At the start of a tick, before anything moves
+    public static void savePrevious(World world) {
+        for (int k = 0; k < world.archetypeCount(); k++) {
+            Archetype a = world.archetype(k);
+            if (!a.has(Archetype.POSITION))
+                continue;
+
+            System.arraycopy(a.x, 0, a.prevX, 0, a.count);
+            System.arraycopy(a.y, 0, a.prevY, 0, a.count);
+        }
+    }
+
+    public static void run(World world, float dt, int arenaW, int arenaH) {
+        for (int k = 0; k < world.archetypeCount(); k++) {
+            Archetype a = world.archetype(k);
+            if (!a.has(Archetype.POSITION | Archetype.VELOCITY))
+                continue;
+
+            float[] x = a.x, y = a.y;
+            int n = a.count;
+
+            float[] vx = a.vx, vy = a.vy;
+            float[] w = a.w, h = a.h;
+            for (int i = 0; i < n; i++) {
+                x[i] += vx[i] * dt;
+                y[i] += vy[i] * dt;
+
+                float hw = w != null ? w[i] / 2f : 0f;
+                float hh = h != null ? h[i] / 2f : 0f;
+
+                if (x[i] < hw || x[i] > arenaW - hw) {
+                    vx[i] = -vx[i];
+                    x[i] = Math.max(hw, Math.min(x[i], arenaW - hw));
+                }
+                if (y[i] < hh || y[i] > arenaH - hh) {
+                    vy[i] = -vy[i];
+                    y[i] = Math.max(hh, Math.min(y[i], arenaH - hh));
+                }
+            }
+        }
+    }
+}
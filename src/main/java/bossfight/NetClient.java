@@ -0,0 +1,181 @@
+package bossfight;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.PortUnreachableException;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.Arrays;
+
+// Client end of the co-op protocol: sends buttons, reassembles and decodes
+// snapshots, and acks the newest one so the server can delta against it.
+// Non-blocking; call sendInput() and receive() once per frame.
+public class NetClient implements Closeable {
+
+    private final DatagramChannel channel;
+
+    // Decoded states, indexed by tick % HISTORY, for deltas to build on
+    private final NetState[] history = new NetState[NetProtocol.HISTORY];
+    private NetState latest;
+    private int slot = -1;
+    private float dt;
+    private boolean full;
+
+    // Fragments of the snapshot being put together. A fragment of a newer
+    // tick throws away an unfinished older one.
+    private int assemblingTick = -1;
+    private int fragmentsWanted, fragmentsHave;
+    private boolean[] fragmentSeen = new boolean[16];
+    private final ByteBuffer assembly;
+
+    private final ByteBuffer receiveBuffer = ByteBuffer.allocate(NetProtocol.MAX_DATAGRAM);
+    private final ByteBuffer sendBuffer = ByteBuffer.allocate(NetProtocol.INPUT_SIZE);
+
+    // Totals, for reporting
+    long bytesReceived;
+    int snapshotsDecoded;
+    int snapshotsDropped;
+
+    public NetClient(InetSocketAddress server, int bulletCapacity) throws IOException {
+        for (int i = 0; i < history.length; i++)
+            history[i] = new NetState(bulletCapacity);
+        assembly = ByteBuffer.allocate(SnapshotCodec.maxSize(bulletCapacity));
+
+        channel = DatagramChannel.open();
+        // A full snapshot with thousands of bullets is a burst of a hundred
+        // or so datagrams; the default buffer drops the tail of it
+        channel.setOption(StandardSocketOptions.SO_RCVBUF, NetProtocol.SOCKET_BUFFER);
+        channel.connect(server);
+        channel.configureBlocking(false);
+    }
+
+    // The newest complete snapshot, or null before the first one
+    public NetState latest() {
+        return latest;
+    }
+
+    // This client's player slot, -1 until the first snapshot
+    public int slot() {
+        return slot;
+    }
+
+    // Tick length the server runs at
+    public float dt() {
+        return dt;
+    }
+
+    // True if the server turned us away
+    public boolean isServerFull() {
+        return full;
+    }
+
+    public void sendInput(int buttons) throws IOException {
+        sendBuffer.clear();
+        sendBuffer.put(NetProtocol.INPUT);
+        sendBuffer.putInt(latest != null ? latest.tick : -1);
+        sendBuffer.putInt(buttons);
+        sendBuffer.flip();
+        channel.write(sendBuffer);
+    }
+
+    // Reads everything waiting. Returns true if a new snapshot completed.
+    public boolean receive() throws IOException {
+        boolean updated = false;
+        while (true) {
+            receiveBuffer.clear();
+            int n;
+            try {
+                n = channel.read(receiveBuffer);
+            } catch (PortUnreachableException e) {
+                // Server not up (yet); keep sending input until it is
+                return updated;
+            }
+            if (n <= 0)
+                return updated;
+            bytesReceived += n;
+            receiveBuffer.flip();
+
+            byte type = receiveBuffer.get();
+            if (type == NetProtocol.FULL)
+                full = true;
+            else if (type == NetProtocol.SNAPSHOT && receiveBuffer.remaining() >= NetProtocol.FRAGMENT_HEADER - 1)
+                updated |= fragment();
+        }
+    }
+
+    private boolean fragment() {
+        int tick = receiveBuffer.getInt();
+        int fromSlot = receiveBuffer.get();
+        int index = receiveBuffer.getShort();
+        int count = receiveBuffer.getShort();
+
+        if (latest != null && tick <= latest.tick)
+            return false; // late or duplicate
+        if (tick < assemblingTick)
+            return false;
+
+        if (tick != assemblingTick) {
+            if (fragmentsHave > 0)
+                snapshotsDropped++;
+            assemblingTick = tick;
+            fragmentsWanted = count;
+            fragmentsHave = 0;
+            if (fragmentSeen.length < count)
+                fragmentSeen = new boolean[Integer.highestOneBit(count) << 1];
+            Arrays.fill(fragmentSeen, 0, count, false);
+            assembly.clear();
+        }
+        if (index < 0 || index >= fragmentsWanted || fragmentSeen[index])
+            return false;
+
+        fragmentSeen[index] = true;
+        fragmentsHave++;
+        int len = receiveBuffer.remaining();
+        assembly.put(index * NetProtocol.FRAGMENT_PAYLOAD, receiveBuffer, receiveBuffer.position(), len);
+        if (index == fragmentsWanted - 1)
+            assembly.limit(index * NetProtocol.FRAGMENT_PAYLOAD + len);
+
+        if (fragmentsHave < fragmentsWanted)
+            return false;
+
+        assembly.position(0);
+        assemblingTick = -1;
+        fragmentsHave = 0;
+        return decode(tick, fromSlot);
+    }
+
+    private boolean decode(int tick, int fromSlot) {
+        int baseTick = SnapshotCodec.baseTick(assembly);
+        NetState base = null;
+        if (baseTick >= 0) {
+            base = history[Math.floorMod(baseTick, NetProtocol.HISTORY)];
+            if (base.tick != baseTick) {
+                snapshotsDropped++;
+                return false; // we never had it; the server will catch up
+            }
+        }
+
+        NetState out = history[Math.floorMod(tick, NetProtocol.HISTORY)];
+        if (out == base) {
+            snapshotsDropped++;
+            return false;
+        }
+        dt = SnapshotCodec.decode(base, assembly, out);
+        latest = out;
+        slot = fromSlot;
+        snapshotsDecoded++;
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            channel.write(ByteBuffer.wrap(new byte[] { NetProtocol.BYE }));
+        } catch (IOException e) {
+            // Leaving anyway; the server times us out
+        }
+        channel.close();
+    }
+}
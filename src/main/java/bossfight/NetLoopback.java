@@ -0,0 +1,66 @@
+package bossfight;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.util.concurrent.locks.LockSupport;
+
+// Runs a GameServer and a few bot clients over loopback in one process and
+// checks every snapshot a client decodes against what the server sent.
+// The server prints tick time and per-client bandwidth once a second.
+//
+//   mvn exec:java -Dexec.mainClass=bossfight.NetLoopback -Dexec.args="4 10 3000"
+//
+// Args: [clients] [seconds] [bullet floor]
+public class NetLoopback {
+
+    public static void main(String[] args) throws IOException {
+        int clientCount = args.length > 0 ? Integer.parseInt(args[0]) : 4;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 10;
+        int bulletFloor = args.length > 2 ? Integer.parseInt(args[2]) : 3000;
+
+        GameServer server = new GameServer(0, 60, bulletFloor);
+        InetSocketAddress address = new InetSocketAddress("127.0.0.1", server.port());
+
+        NetClient[] clients = new NetClient[clientCount];
+        InputSource[] bots = new InputSource[clientCount];
+        for (int i = 0; i < clientCount; i++) {
+            clients[i] = new NetClient(address, Game.MAX_BULLETS);
+            bots[i] = new HeadlessRunner.WeaveInput();
+        }
+
+        int checked = 0, mismatched = 0;
+        long end = System.nanoTime() + seconds * 1_000_000_000L;
+        long frame = 1_000_000_000L / 120;
+
+        // Everything on this thread: server step, then each client's frame
+        while (System.nanoTime() < end) {
+            server.step();
+            for (int i = 0; i < clientCount; i++) {
+                NetClient c = clients[i];
+                c.sendInput(bots[i].poll());
+                if (c.receive()) {
+                    NetState sent = server.history(c.latest().tick);
+                    if (sent != null) {
+                        checked++;
+                        if (!sent.sameAs(c.latest()))
+                            mismatched++;
+                    }
+                }
+            }
+            LockSupport.parkNanos(frame);
+        }
+
+        System.out.printf("%d snapshots checked against the server, %d mismatched%n", checked, mismatched);
+        for (int i = 0; i < clientCount; i++) {
+            NetClient c = clients[i];
+            System.out.printf("client %d (player %d): %d decoded, %d dropped, %.1f KB/s%n",
+                    i, c.slot(), c.snapshotsDecoded, c.snapshotsDropped,
+                    c.bytesReceived / 1024.0 / seconds);
+            c.close();
+        }
+        server.close();
+
+        if (mismatched > 0)
+            System.exit(1);
+    }
+}
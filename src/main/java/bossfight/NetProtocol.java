@@ -0,0 +1,79 @@
+package bossfight;
+
+import java.nio.ByteBuffer;
+
+// Wire format shared by GameServer and NetClient. Everything goes over UDP,
+// big-endian.
+//
+// Client to server, every frame:
+//   byte INPUT, int last snapshot tick fully received (-1 for none), int buttons
+//   byte BYE when leaving
+//
+// Server to client, every tick: one snapshot encoded by SnapshotCodec and
+// split into datagrams of at most MAX_DATAGRAM bytes, each
+//   byte SNAPSHOT, int tick, byte slot, short fragment, short fragments, payload...
+// A snapshot only counts once every fragment has arrived; a lost fragment
+// just means the next delta is taken against an older acked tick.
+final class NetProtocol {
+
+    static final byte INPUT = 1;
+    static final byte BYE = 2;
+    static final byte SNAPSHOT = 3;
+    // Sent instead of snapshots when every player slot is taken
+    static final byte FULL = 4;
+
+    static final int DEFAULT_PORT = 27960;
+
+    // Comfortably under a typical path MTU so nothing fragments at the IP level
+    static final int MAX_DATAGRAM = 1200;
+    static final int FRAGMENT_HEADER = 1 + 4 + 1 + 2 + 2;
+    static final int FRAGMENT_PAYLOAD = MAX_DATAGRAM - FRAGMENT_HEADER;
+
+    // Socket buffer asked for on both ends (the OS may grant less)
+    static final int SOCKET_BUFFER = 4 << 20;
+
+    static final int INPUT_SIZE = 1 + 4 + 4;
+
+    // Ticks of history kept on both ends for deltas to be taken against
+    static final int HISTORY = 64;
+
+    // Clients not heard from for this long are dropped
+    static final long TIMEOUT_NANOS = 5_000_000_000L;
+
+    private NetProtocol() {
+    }
+
+    // -----------------------------
+    // VARINTS
+    // -----------------------------
+    // 7 bits per byte, low bits first, top bit set while more follow.
+    // Signed values are zigzagged first so small negatives stay short.
+
+    static void putVarint(ByteBuffer out, int v) {
+        while ((v & ~0x7F) != 0) {
+            out.put((byte) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        out.put((byte) v);
+    }
+
+    static int getVarint(ByteBuffer in) {
+        int v = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = in.get();
+            v |= (b & 0x7F) << shift;
+            if (b >= 0)
+                return v;
+        }
+        throw new IllegalArgumentException("malformed varint");
+    }
+
+    static void putSigned(ByteBuffer out, int v) {
+        putVarint(out, (v << 1) ^ (v >> 31));
+    }
+
+    static int getSigned(ByteBuffer in) {
+        int z = getVarint(in);
+        return (z >>> 1) ^ -(z & 1);
+    }
+}
@@ -0,0 +1,219 @@
+package bossfight;
+
+// One tick of the game as the network sees it: everything a client needs to
+// draw, quantized to integers so the server and every client agree exactly
+// on the values a delta is taken against.
+//
+// Positions are in 1/256 pixel steps, offset so the cull margin stays
+// positive. Bullet velocities are in the same steps per tick, so a bullet's
+// position n ticks later is exactly x + vx * n. Capture snaps each bullet
+// onto that line while it stays within half a pixel of the real thing:
+// a straight-flying bullet then never differs from its prediction, which is
+// what lets SnapshotCodec skip it. Player slot 0 is Game.player, slot k is
+// Game.guests[k - 1]. Minions are whatever else is in Game.world (what the
+// boss has summoned), drawn with the boss sprite.
+public class NetState {
+
+    static final int MAX_PLAYERS = Game.MAX_GUESTS + 1;
+    static final int MAX_MINIONS = 64;
+
+    static final float POS_SCALE = 256f;
+    static final float POS_OFFSET = 512f;
+    static final int HP_SCALE = 65535;
+
+    // Furthest a bullet may drift from its predicted line before capture
+    // sends its real position again: half a pixel
+    static final int SNAP = 128;
+
+    int tick = -1;
+    int width, height;
+    boolean gameOver;
+
+    int bossX, bossY;
+    int bossHp;          // health 0..1 scaled to 0..HP_SCALE
+    int bossPhase, bossState;
+
+    // Bit k set when player slot k is in the game
+    int playerMask;
+    final int[] playerX = new int[MAX_PLAYERS], playerY = new int[MAX_PLAYERS];
+    final int[] playerLives = new int[MAX_PLAYERS];
+    final int[] playerInvuln = new int[MAX_PLAYERS]; // 1 while blinking after a hit
+
+    int minionCount;
+    final int[] minionX = new int[MAX_MINIONS], minionY = new int[MAX_MINIONS];
+    final int[] minionSize = new int[MAX_MINIONS]; // whole pixels; they're square
+
+    int bulletCount;
+    final int[] bulletX, bulletY;
+    final int[] bulletVx, bulletVy;
+    final boolean[] bulletFriendly;
+
+    public NetState(int bulletCapacity) {
+        bulletX = new int[bulletCapacity];
+        bulletY = new int[bulletCapacity];
+        bulletVx = new int[bulletCapacity];
+        bulletVy = new int[bulletCapacity];
+        bulletFriendly = new boolean[bulletCapacity];
+    }
+
+    // Quantizes the game's current state. previous is the state captured
+    // the tick before (or null), for snapping bullets onto their lines.
+    void capture(Game game, NetState previous, float dt) {
+        tick = (int) game.clock.ticks();
+        width = game.width;
+        height = game.height;
+        gameOver = game.gameOver;
+
+        World world = game.world;
+        bossX = pos(world.x(game.boss));
+        bossY = pos(world.y(game.boss));
+        bossHp = Math.round(Math.max(0f, Math.min(1f, BossSystem.health01(world, game.boss))) * HP_SCALE);
+        bossPhase = BossSystem.phase(world, game.boss).ordinal();
+        bossState = BossSystem.state(world, game.boss).ordinal();
+
+        playerMask = 0;
+        minionCount = 0;
+        for (int k = 0; k < world.archetypeCount(); k++) {
+            Archetype a = world.archetype(k);
+            if (a.has(Archetype.PILOT)) {
+                for (int i = 0; i < a.count; i++)
+                    capturePlayer(a, i);
+                continue;
+            }
+            if (!a.has(Archetype.POSITION | Archetype.BOUNDS) || a.has(Archetype.BRAIN))
+                continue;
+            for (int i = 0; i < a.count && minionCount < MAX_MINIONS; i++) {
+                minionX[minionCount] = pos(a.x[i]);
+                minionY[minionCount] = pos(a.y[i]);
+                minionSize[minionCount] = Math.round(a.w[i]);
+                minionCount++;
+            }
+        }
+
+        BulletPool pool = game.bullets;
+        int n = Math.min(pool.size(), bulletX.length);
+        int snappable = previous != null && previous.tick == tick - 1 ? previous.bulletCount : 0;
+        for (int i = 0; i < n; i++) {
+            int x = pos(pool.x[i]), y = pos(pool.y[i]);
+            int vx = vel(pool.vx[i], dt), vy = vel(pool.vy[i], dt);
+            boolean friendly = pool.friendly[i];
+
+            // Same bullet still on the same line: keep the predicted position
+            if (i < snappable && previous.bulletVx[i] == vx && previous.bulletVy[i] == vy
+                    && previous.bulletFriendly[i] == friendly) {
+                int px = previous.bulletX[i] + vx, py = previous.bulletY[i] + vy;
+                if (Math.abs(px - x) <= SNAP && Math.abs(py - y) <= SNAP) {
+                    x = px;
+                    y = py;
+                }
+            }
+
+            bulletX[i] = x;
+            bulletY[i] = y;
+            bulletVx[i] = vx;
+            bulletVy[i] = vy;
+            bulletFriendly[i] = friendly;
+        }
+        bulletCount = n;
+    }
+
+    private void capturePlayer(Archetype a, int i) {
+        int slot = a.slot[i];
+        playerMask |= 1 << slot;
+        playerX[slot] = pos(a.x[i]);
+        playerY[slot] = pos(a.y[i]);
+        playerLives[slot] = a.lives[i];
+        playerInvuln[slot] = a.invuln[i] > 0 ? 1 : 0;
+    }
+
+    // Fills a FrameSnapshot for Game.render, with player slot self's lives
+    // on the HUD. Sprites come from s.playerSprite and s.bossSprite, in the
+    // order Game draws its own world: players, boss, minions.
+    void toSnapshot(FrameSnapshot s, int self, float dt) {
+        s.view.resize(width, height);
+        // Walls aren't sent; the server's are always the default arena
+        s.walls.fit(width, height);
+        s.lastDt = dt;
+        s.gameOver = gameOver;
+        s.ticks = tick;
+
+        s.bossHealth = bossHp / (float) HP_SCALE;
+        s.bossPhase = BossSystem.Phase.values()[bossPhase];
+        s.lives = (playerMask & 1 << self) != 0 ? playerLives[self] : 0;
+
+        int n = 0;
+        for (int slot = 0; slot < MAX_PLAYERS; slot++) {
+            if ((playerMask & 1 << slot) == 0 || playerLives[slot] <= 0)
+                continue;
+            float x = unpos(playerX[slot]), y = unpos(playerY[slot]);
+            n = RenderSystem.add(s, n, x, y, x, y, 40, 40, s.playerSprite);
+        }
+
+        float bx = unpos(bossX), by = unpos(bossY);
+        int added = RenderSystem.add(s, n, bx, by, bx, by, 80, 80, s.bossSprite);
+        if (added > n)
+            RenderSystem.bossTint(s, n, BossSystem.State.values()[bossState], 0f);
+        n = added;
+
+        for (int i = 0; i < minionCount; i++) {
+            float x = unpos(minionX[i]), y = unpos(minionY[i]);
+            n = RenderSystem.add(s, n, x, y, x, y, minionSize[i], minionSize[i], s.bossSprite);
+        }
+        RenderSystem.finish(s, n);
+
+        BulletPool pool = s.bullets;
+        pool.clear();
+        for (int i = 0; i < bulletCount; i++) {
+            pool.spawn(unpos(bulletX[i]), unpos(bulletY[i]),
+                    unvel(bulletVx[i], dt), unvel(bulletVy[i], dt), bulletFriendly[i]);
+        }
+    }
+
+    // True if every field matches, for checking a decoded state on loopback
+    boolean sameAs(NetState o) {
+        if (tick != o.tick || width != o.width || height != o.height || gameOver != o.gameOver
+                || bossX != o.bossX || bossY != o.bossY || bossHp != o.bossHp
+                || bossPhase != o.bossPhase || bossState != o.bossState
+                || playerMask != o.playerMask || minionCount != o.minionCount
+                || bulletCount != o.bulletCount)
+            return false;
+
+        for (int k = 0; k < MAX_PLAYERS; k++) {
+            if ((playerMask & 1 << k) != 0 && (playerX[k] != o.playerX[k] || playerY[k] != o.playerY[k]
+                    || playerLives[k] != o.playerLives[k] || playerInvuln[k] != o.playerInvuln[k]))
+                return false;
+        }
+        for (int i = 0; i < minionCount; i++) {
+            if (minionX[i] != o.minionX[i] || minionY[i] != o.minionY[i] || minionSize[i] != o.minionSize[i])
+                return false;
+        }
+        for (int i = 0; i < bulletCount; i++) {
+            if (bulletX[i] != o.bulletX[i] || bulletY[i] != o.bulletY[i]
+                    || bulletVx[i] != o.bulletVx[i] || bulletVy[i] != o.bulletVy[i]
+                    || bulletFriendly[i] != o.bulletFriendly[i])
+                return false;
+        }
+        return true;
+    }
+
+    // -----------------------------
+    // QUANTIZATION
+    // -----------------------------
+
+    static int pos(float v) {
+        return Math.round((v + POS_OFFSET) * POS_SCALE);
+    }
+
+    static float unpos(int q) {
+        return q / POS_SCALE - POS_OFFSET;
+    }
+
+    // Pixels per second to position steps per tick
+    static int vel(float v, float dt) {
+        return Math.round(v * dt * POS_SCALE);
+    }
+
+    static float unvel(int q, float dt) {
+        return q / POS_SCALE / dt;
+    }
+}
@@ -0,0 +1,79 @@
+package bossfight;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Runs Bullet.integrate over chunks of a pool on a ForkJoinPool.
+//
+// The pool is split into a few chunks per worker, so a worker that finishes
+// early can steal, but never into chunks smaller than MIN_CHUNK. Every
+// bullet goes through exactly the same arithmetic as on the serial path and
+// chunks never share an index, so the result is bit-identical no matter how
+// chunks are sized or scheduled (SimCheck parallel checks this). Chunk tasks
+// are allocated once and reinitialised each tick.
+public class ParallelBulletIntegrator {
+
+    // Below this a chunk costs more to hand out than it saves
+    public static final int MIN_CHUNK = 4096;
+    static final int CHUNKS_PER_WORKER = 4;
+
+    private static class Chunk extends RecursiveAction {
+        BulletPool pool;
+        int from, to;
+        float dt;
+        Viewport view;
+        WallGrid walls;
+
+        @Override
+        protected void compute() {
+            Bullet.integrate(pool, from, to, dt, view, walls);
+        }
+    }
+
+    private final ForkJoinPool executor;
+    private Chunk[] chunks = new Chunk[0];
+
+    public ParallelBulletIntegrator(ForkJoinPool executor) {
+        this.executor = executor;
+    }
+
+    public void integrate(BulletPool pool, float dt, Viewport view, WallGrid walls) {
+        int n = pool.count;
+        int maxChunks = Math.max(1, executor.getParallelism() * CHUNKS_PER_WORKER);
+        int chunkCount = Math.min(maxChunks, (n + MIN_CHUNK - 1) / MIN_CHUNK);
+        // Rounded up to whole cache lines of floats so neighbouring chunks
+        // don't write to the same line
+        int chunkSize = chunkCount == 0 ? 0 : ((n + chunkCount - 1) / chunkCount + 15) & ~15;
+        ensureChunks(chunkCount);
+
+        for (int c = 0; c < chunkCount; c++) {
+            Chunk task = chunks[c];
+            task.reinitialize();
+            task.pool = pool;
+            task.from = Math.min(n, c * chunkSize);
+            task.to = Math.min(n, task.from + chunkSize);
+            task.dt = dt;
+            task.view = view;
+            task.walls = walls;
+        }
+
+        // Hand out all but the first chunk, do that one on this thread
+        for (int c = 1; c < chunkCount; c++)
+            executor.execute(chunks[c]);
+        if (chunkCount > 0)
+            chunks[0].invoke();
+        for (int c = 1; c < chunkCount; c++)
+            chunks[c].join();
+    }
+
+    private void ensureChunks(int count) {
+        if (chunks.length >= count)
+            return;
+
+        Chunk[] grown = new Chunk[count];
+        System.arraycopy(chunks, 0, grown, 0, chunks.length);
+        for (int c = chunks.length; c < count; c++)
+            grown[c] = new Chunk();
+        chunks = grown;
+    }
+}
@@ -0,0 +1,142 @@
+package bossfight;
+
+// Fixed-size ring of purely visual particles: hit sparks, death bursts,
+// phase-change flashes. Structure-of-arrays like BulletPool, but never
+// compacted: new particles are written at head and wrap round, so once the
+// ring is full each one overwrites the oldest. However many bursts a frantic
+// volley sets off, the cost stays at capacity particles.
+//
+// Nothing here feeds back into the fight, so particles are left out of the
+// state hash and of GameState. Emitting, updating and drawing don't allocate.
+public class ParticlePool {
+
+    public final int capacity;
+
+    public final float[] x, y;
+    public final float[] vx, vy;
+    // Seconds left, and what it started at (for fading out)
+    public final float[] life, maxLife;
+    public final float[] size;
+    public final float[] r, g, b;
+
+    // Next slot to write; slots [0, count) have been written at least once
+    int head = 0;
+    int count = 0;
+
+    // Velocity kept per second; sparks slow down as they fade
+    private static final float DRAG = 0.05f;
+
+    // Spread for bursts, xorshift so there's no Random to allocate or share
+    private int seed = 0x2545F491;
+
+    public ParticlePool(int capacity) {
+        this.capacity = capacity;
+        x = new float[capacity];
+        y = new float[capacity];
+        vx = new float[capacity];
+        vy = new float[capacity];
+        life = new float[capacity];
+        maxLife = new float[capacity];
+        size = new float[capacity];
+        r = new float[capacity];
+        g = new float[capacity];
+        b = new float[capacity];
+    }
+
+    public void emit(float px, float py, float pvx, float pvy, float seconds, float pixels,
+            float red, float green, float blue) {
+        int i = head;
+        head = head + 1 == capacity ? 0 : head + 1;
+        if (count < capacity)
+            count++;
+
+        x[i] = px;
+        y[i] = py;
+        vx[i] = pvx;
+        vy[i] = pvy;
+        life[i] = seconds;
+        maxLife[i] = seconds;
+        size[i] = pixels;
+        r[i] = red;
+        g[i] = green;
+        b[i] = blue;
+    }
+
+    // n particles flying out from (px, py) in random directions, at up to
+    // speed pixels/s, lasting up to seconds
+    public void burst(float px, float py, int n, float speed, float seconds, float pixels,
+            float red, float green, float blue) {
+        for (int k = 0; k < n; k++) {
+            float angle = nextFloat() * (float) (Math.PI * 2);
+            float s = speed * (0.3f + 0.7f * nextFloat());
+            float t = seconds * (0.5f + 0.5f * nextFloat());
+            emit(px, py, (float) Math.cos(angle) * s, (float) Math.sin(angle) * s, t, pixels,
+                    red, green, blue);
+        }
+    }
+
+    public void update(float dt) {
+        float keep = (float) Math.pow(DRAG, dt);
+        for (int i = 0; i < count; i++) {
+            if (life[i] <= 0f)
+                continue;
+
+            x[i] += vx[i] * dt;
+            y[i] += vy[i] * dt;
+            vx[i] *= keep;
+            vy[i] *= keep;
+            life[i] -= dt;
+        }
+    }
+
+    // Drawn like bullets: rewound along their velocity by 'lag' seconds
+    // rather than lerped, and faded out over their life. sprite is a plain
+    // white region that gets tinted.
+    public void render(TextureRegion sprite, SpriteBatch batch, float lag, Viewport view) {
+        for (int i = 0; i < count; i++) {
+            if (life[i] <= 0f)
+                continue;
+
+            float px = x[i] - vx[i] * lag, py = y[i] - vy[i] * lag;
+            if (!view.isVisible(px, py, size[i], size[i]))
+                continue;
+
+            batch.setColor(r[i], g[i], b[i], life[i] / maxLife[i]);
+            batch.draw(sprite, px, py, size[i], size[i]);
+        }
+        batch.resetColor();
+    }
+
+    // For the render-only copy in a FrameSnapshot
+    public void copyFrom(ParticlePool other) {
+        int n = other.count;
+        System.arraycopy(other.x, 0, x, 0, n);
+        System.arraycopy(other.y, 0, y, 0, n);
+        System.arraycopy(other.vx, 0, vx, 0, n);
+        System.arraycopy(other.vy, 0, vy, 0, n);
+        System.arraycopy(other.life, 0, life, 0, n);
+        System.arraycopy(other.maxLife, 0, maxLife, 0, n);
+        System.arraycopy(other.size, 0, size, 0, n);
+        System.arraycopy(other.r, 0, r, 0, n);
+        System.arraycopy(other.g, 0, g, 0, n);
+        System.arraycopy(other.b, 0, b, 0, n);
+        head = other.head;
+        count = n;
+    }
+
+    public void clear() {
+        head = 0;
+        count = 0;
+    }
+
+    public int size() {
+        return count;
+    }
+
+    private float nextFloat() {
+        seed ^= seed << 13;
+        seed ^= seed >>> 17;
+        seed ^= seed << 5;
+        return (seed >>> 8) * (1f / (1 << 24));
+    }
+}
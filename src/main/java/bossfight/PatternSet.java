@@ -0,0 +1,202 @@
+package bossfight;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+// Boss attacks loaded from a text file (assets/patterns.txt by default,
+// -Dbossfight.patterns=<file> to override). Two kinds of line:
+//
+//   <pattern> <PHASE> kind=<radial|spiral|wave|cone|aimed> count=<n> speed=<px/s> [key=value...]
+//       Defines a pattern for one phase. Optional keys: speedStep, spread,
+//       angle, rotate, period (see BulletPattern.Kind).
+//
+//   attack <PHASE> <pattern>[+<pattern>...] ...
+//       What the boss fires in that phase. Each group is one attack; the boss
+//       cycles through the groups from the first each time it enters the
+//       phase, and '+' fires patterns together.
+//
+// '#' starts a comment. Everything is compiled when the file is read.
+public class PatternSet {
+
+    static final Path DEFAULT_FILE = Path.of(System.getProperty("bossfight.patterns", "assets/patterns.txt"));
+
+    private static PatternSet defaults;
+
+    private final List<BulletPattern> patterns = new ArrayList<>();
+    private final Map<String, Integer> byName = new HashMap<>();
+
+    // [phase][attack] -> pattern indices fired together
+    private final int[][][] attacks = new int[BossSystem.Phase.values().length][][];
+
+    private PatternSet() {
+    }
+
+    // The default file, read once and shared by every Game
+    public static synchronized PatternSet defaults() {
+        if (defaults == null)
+            defaults = load(DEFAULT_FILE);
+        return defaults;
+    }
+
+    public static PatternSet load(Path file) {
+        try {
+            return parse(Files.readAllLines(file), file.toString());
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to read bullet patterns: " + file, e);
+        }
+    }
+
+    public static PatternSet parse(List<String> lines, String source) {
+        PatternSet set = new PatternSet();
+        List<List<int[]>> attackLists = new ArrayList<>();
+        for (int p = 0; p < set.attacks.length; p++)
+            attackLists.add(new ArrayList<>());
+
+        // Attack lines may name patterns defined further down
+        List<String[]> attackLines = new ArrayList<>();
+        List<Integer> attackLineNumbers = new ArrayList<>();
+
+        for (int n = 0; n < lines.size(); n++) {
+            String line = lines.get(n);
+            int hash = line.indexOf('#');
+            if (hash >= 0)
+                line = line.substring(0, hash);
+            String[] words = line.trim().split("\\s+");
+            if (words.length == 1 && words[0].isEmpty())
+                continue;
+
+            try {
+                if (words.length < 2)
+                    throw new IllegalArgumentException("expected a pattern or attack line");
+
+                if (words[0].equals("attack")) {
+                    attackLines.add(words);
+                    attackLineNumbers.add(n + 1);
+                } else {
+                    set.define(words);
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(source + ":" + (n + 1) + ": " + e.getMessage(), e);
+            }
+        }
+
+        for (int k = 0; k < attackLines.size(); k++) {
+            String[] words = attackLines.get(k);
+            try {
+                BossSystem.Phase phase = BossSystem.Phase.valueOf(words[1]);
+                List<int[]> list = attackLists.get(phase.ordinal());
+                for (int w = 2; w < words.length; w++) {
+                    String[] names = words[w].split("\\+");
+                    int[] group = new int[names.length];
+                    for (int g = 0; g < names.length; g++) {
+                        group[g] = set.index(names[g]);
+                        if (!set.patterns.get(group[g]).hasPhase(phase))
+                            throw new IllegalArgumentException(names[g] + " has no " + phase + " definition");
+                    }
+                    list.add(group);
+                }
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException(source + ":" + attackLineNumbers.get(k) + ": " + e.getMessage(), e);
+            }
+        }
+
+        for (BossSystem.Phase phase : BossSystem.Phase.values()) {
+            List<int[]> list = attackLists.get(phase.ordinal());
+            if (list.isEmpty())
+                throw new IllegalArgumentException(source + ": no attack for " + phase);
+            set.attacks[phase.ordinal()] = list.toArray(new int[0][]);
+        }
+        return set;
+    }
+
+    public int patternCount() {
+        return patterns.size();
+    }
+
+    public BulletPattern pattern(int index) {
+        return patterns.get(index);
+    }
+
+    public int index(String name) {
+        int i = find(name);
+        if (i < 0)
+            throw new IllegalArgumentException("unknown pattern " + name);
+        return i;
+    }
+
+    // Like index, but -1 for a pattern the file doesn't define
+    public int find(String name) {
+        Integer i = byName.get(name);
+        return i != null ? i : -1;
+    }
+
+    public int attackCount(BossSystem.Phase phase) {
+        return attacks[phase.ordinal()].length;
+    }
+
+    // Indices of the patterns fired together by attack k of the phase
+    public int[] attack(BossSystem.Phase phase, int k) {
+        return attacks[phase.ordinal()][k];
+    }
+
+    private void define(String[] words) {
+        String name = words[0];
+        BossSystem.Phase phase = BossSystem.Phase.valueOf(words[1]);
+
+        Map<String, String> params = new HashMap<>();
+        for (int w = 2; w < words.length; w++) {
+            int eq = words[w].indexOf('=');
+            if (eq <= 0)
+                throw new IllegalArgumentException("expected key=value, got " + words[w]);
+            params.put(words[w].substring(0, eq), words[w].substring(eq + 1));
+        }
+
+        String kindName = params.remove("kind");
+        if (kindName == null)
+            throw new IllegalArgumentException("missing kind");
+        BulletPattern.Kind kind = BulletPattern.Kind.valueOf(kindName.toUpperCase());
+
+        int count = (int) number(params, "count", Float.NaN);
+        float speed = number(params, "speed", Float.NaN);
+        float speedStep = number(params, "speedStep", 0f);
+        float spread = number(params, "spread", kind == BulletPattern.Kind.SPIRAL ? 360f : 0f);
+        float angle = number(params, "angle", 0f);
+        float rotate = number(params, "rotate", 0f);
+        float period = number(params, "period", 8f);
+        if (!params.isEmpty())
+            throw new IllegalArgumentException("unknown keys " + params.keySet());
+        if (count < 1)
+            throw new IllegalArgumentException("count must be at least 1");
+
+        Integer existing = byName.get(name);
+        BulletPattern pattern;
+        if (existing == null) {
+            pattern = new BulletPattern(name);
+            byName.put(name, patterns.size());
+            patterns.add(pattern);
+        } else {
+            pattern = patterns.get(existing);
+        }
+        pattern.define(phase, kind, count, speed, speedStep, spread, angle, rotate, period);
+    }
+
+    // Removes and parses one parameter; NaN as default means required
+    private static float number(Map<String, String> params, String key, float fallback) {
+        String value = params.remove(key);
+        if (value == null) {
+            if (Float.isNaN(fallback))
+                throw new IllegalArgumentException("missing " + key);
+            return fallback;
+        }
+        try {
+            return Float.parseFloat(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("bad number for " + key + ": " + value);
+        }
+    }
+}
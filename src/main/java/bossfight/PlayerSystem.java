@@ -0,0 +1,95 @@
+package bossfight;
+
+// Moves and fires for every World entity with a PILOT component (the
+// players, see Prefabs.player). Each reads the buttons for its own slot.
+// Out of lives sits the rest of the fight out.
+public final class PlayerSystem {
+
+    public static final int MAX_LIVES = 3;
+
+    // How far inside the arena edges players are kept
+    static final float MARGIN = 64f;
+
+    private PlayerSystem() {
+    }
+
+    // buttons[slot] is what that slot's input returned this tick
+    public static void run(World world, float dt, int[] buttons, BulletPool bullets,
+            float shootCooldown, int arenaW, int arenaH) {
+        for (int k = 0; k < world.archetypeCount(); k++) {
+            Archetype a = world.archetype(k);
+            if (!a.has(Archetype.PILOT | Archetype.POSITION))
+                continue;
+
+            for (int i = 0; i < a.count; i++) {
+                if (!a.alive[i] || a.lives[i] <= 0)
+                    continue;
+
+                int held = buttons[a.slot[i]];
+                move(a, i, dt, held, arenaW, arenaH);
+
+                a.shootTimer[i] = Math.max(0, a.shootTimer[i] - dt);
+                if (InputSource.held(held, InputSource.FIRE) && a.shootTimer[i] == 0) {
+                    bullets.spawn(a.x[i] + a.w[i] / 2, a.y[i], 600, 0, true);
+                    a.shootTimer[i] = shootCooldown;
+                }
+            }
+        }
+    }
+
+    private static void move(Archetype a, int i, float dt, int buttons, int arenaW, int arenaH) {
+        float vx = 0, vy = 0;
+
+        if (InputSource.held(buttons, InputSource.UP))
+            vy++;
+        if (InputSource.held(buttons, InputSource.DOWN))
+            vy--;
+        if (InputSource.held(buttons, InputSource.LEFT))
+            vx--;
+        if (InputSource.held(buttons, InputSource.RIGHT))
+            vx++;
+
+        float len = (float) Math.sqrt(vx * vx + vy * vy);
+        if (len > 0) {
+            vx /= len;
+            vy /= len;
+        }
+
+        a.x[i] += vx * a.speed[i] * dt;
+        a.y[i] += vy * a.speed[i] * dt;
+
+        a.invuln[i] = Math.max(0, a.invuln[i] - dt);
+
+        // world bounds
+        a.x[i] = Math.max(MARGIN, Math.min(a.x[i], arenaW - MARGIN));
+        a.y[i] = Math.max(MARGIN, Math.min(a.y[i], arenaH - MARGIN));
+    }
+
+    // Costs player i of a a life, unless it's still blinking from the last
+    // hit. True if that was its last one.
+    static boolean takeHit(Archetype a, int i) {
+        if (a.invuln[i] > 0 || a.lives[i] <= 0)
+            return false;
+        a.lives[i]--;
+        a.invuln[i] = 1f;
+        return a.lives[i] == 0;
+    }
+
+    public static int lives(World world, int id) {
+        return world.archetypeOf(id).lives[world.indexOf(id)];
+    }
+
+    // True while any player has lives left
+    public static boolean anyAlive(World world) {
+        for (int k = 0; k < world.archetypeCount(); k++) {
+            Archetype a = world.archetype(k);
+            if (!a.has(Archetype.PILOT))
+                continue;
+            for (int i = 0; i < a.count; i++) {
+                if (a.alive[i] && a.lives[i] > 0)
+                    return true;
+            }
+        }
+        return false;
+    }
+}
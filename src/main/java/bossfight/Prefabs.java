@@ -0,0 +1,107 @@
+package bossfight;
+
+// Component sets and spawn helpers for everything in the World. Players and
+// the boss are made once per fight; the rest is what the boss summons (see
+// Game.summon). Minions bounce around soaking up shots; gunners also fire
+// volleys of their own.
+//
+// Players and the boss aren't COLLIDERs: hits cost players a life through
+// PlayerSystem (CollisionSystem adds them to the broadphase itself), and the
+// boss is swept against the bullets on its own and loses health through
+// BossSystem, rather than either going through World.damage.
+public final class Prefabs {
+
+    public static final int PLAYER = Archetype.POSITION | Archetype.BOUNDS | Archetype.SPRITE
+            | Archetype.FACTION | Archetype.PILOT;
+    public static final int BOSS = Archetype.POSITION | Archetype.BOUNDS | Archetype.SPRITE
+            | Archetype.HEALTH | Archetype.BRAIN;
+    public static final int MINION = Archetype.COLLIDER | Archetype.SPRITE | Archetype.VELOCITY;
+    public static final int GUNNER = MINION | Archetype.AI;
+
+    private Prefabs() {
+    }
+
+    // Player slot 0 is the host, slot k reads guest k - 1's input
+    public static int player(World world, float x, float y, TextureRegion sprite, int slot) {
+        int id = world.spawn(PLAYER);
+        Archetype a = world.archetypeOf(id);
+        int i = world.indexOf(id);
+
+        a.x[i] = a.prevX[i] = x;
+        a.y[i] = a.prevY[i] = y;
+        a.w[i] = 40;
+        a.h[i] = 40;
+        a.sprite[i] = sprite;
+        a.faction[i] = Faction.PLAYER;
+        a.slot[i] = slot;
+        a.lives[i] = PlayerSystem.MAX_LIVES;
+        a.speed[i] = 400f;
+        return id;
+    }
+
+    public static int boss(World world, float x, float y, TextureRegion sprite, PatternSet patterns) {
+        int id = world.spawn(BOSS);
+        Archetype a = world.archetypeOf(id);
+        int i = world.indexOf(id);
+
+        a.x[i] = a.prevX[i] = x;
+        a.y[i] = a.prevY[i] = y;
+        a.w[i] = 80f;
+        a.h[i] = 80f;
+        a.sprite[i] = sprite;
+        a.hp[i] = a.maxHp[i] = 100f;
+        a.idleDuration[i] = 1.2f;
+        a.telegraphDuration[i] = 0.7f;
+        a.cooldownDuration[i] = 0.8f;
+        if (a.volleys[i] == null || a.volleys[i].length != patterns.patternCount())
+            a.volleys[i] = new int[patterns.patternCount()];
+        return id;
+    }
+
+    public static int minion(World world, float x, float y, float vx, float vy, TextureRegion sprite) {
+        int id = body(world, MINION, x, y, 24, 24, sprite, 10, Faction.ENEMY);
+        velocity(world, id, vx, vy);
+        return id;
+    }
+
+    // A minion that also fires a PatternSet pattern every second and a half
+    public static int gunner(World world, float x, float y, float vx, float vy, TextureRegion sprite,
+            int pattern) {
+        int id = body(world, GUNNER, x, y, 32, 32, sprite, 20, Faction.ENEMY);
+        velocity(world, id, vx, vy);
+        ai(world, id, 1.5f, pattern);
+        return id;
+    }
+
+    private static int body(World world, int mask, float x, float y, float w, float h,
+            TextureRegion sprite, float hp, Faction faction) {
+        int id = world.spawn(mask);
+        Archetype a = world.archetypeOf(id);
+        int i = world.indexOf(id);
+
+        a.x[i] = a.prevX[i] = x;
+        a.y[i] = a.prevY[i] = y;
+        a.w[i] = w;
+        a.h[i] = h;
+        a.sprite[i] = sprite;
+        a.hp[i] = a.maxHp[i] = hp;
+        a.faction[i] = faction;
+        return id;
+    }
+
+    private static void velocity(World world, int id, float vx, float vy) {
+        Archetype a = world.archetypeOf(id);
+        int i = world.indexOf(id);
+        a.vx[i] = vx;
+        a.vy[i] = vy;
+    }
+
+    private static void ai(World world, int id, float interval, int pattern) {
+        Archetype a = world.archetypeOf(id);
+        int i = world.indexOf(id);
+        a.aiTimer[i] = interval;
+        a.aiInterval[i] = interval;
+        a.aiPattern[i] = pattern;
+        a.aiVolley[i] = 0;
+    }
+}
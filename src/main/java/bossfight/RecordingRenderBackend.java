@@ -0,0 +1,79 @@
+package bossfight;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+// Non-GL backend that records what would have been drawn. BatchCheck
+// asserts on its draw-call counts.
+public class RecordingRenderBackend implements RenderBackend {
+
+  public record DrawCall(Texture texture, int firstQuad, int quadCount) {
+  }
+
+  public final List<DrawCall> drawCalls = new ArrayList<>();
+  public int uploads = 0;
+  public int floatsUploaded = 0;
+
+  public int staticBuffers = 0;
+  public int staticUploads = 0;
+  public int staticFloatsUploaded = 0;
+
+  @Override
+  public void upload(FloatBuffer vertices, int floatCount) {
+    uploads++;
+    floatsUploaded += floatCount;
+  }
+
+  @Override
+  public void drawQuads(Texture texture, int firstQuad, int quadCount) {
+    drawCalls.add(new DrawCall(texture, firstQuad, quadCount));
+  }
+
+  @Override
+  public void endFlush() {
+  }
+
+  @Override
+  public int createStaticBuffer(int floatCapacity) {
+    return ++staticBuffers;
+  }
+
+  @Override
+  public void updateStaticBuffer(int buffer, int floatOffset, FloatBuffer data, int floatCount) {
+    staticUploads++;
+    staticFloatsUploaded += floatCount;
+  }
+
+  @Override
+  public void drawStaticQuads(int buffer, Texture texture, int quadCount) {
+    drawCalls.add(new DrawCall(texture, 0, quadCount));
+  }
+
+  @Override
+  public void deleteStaticBuffer(int buffer) {
+  }
+
+  @Override
+  public void dispose() {
+  }
+
+  public int drawCallCount() {
+    return drawCalls.size();
+  }
+
+  public int quadCount() {
+    int n = 0;
+    for (DrawCall c : drawCalls)
+      n += c.quadCount();
+    return n;
+  }
+
+  public void reset() {
+    drawCalls.clear();
+    uploads = 0;
+    floatsUploaded = 0;
+    staticUploads = 0;
+    staticFloatsUploaded = 0;
+  }
+}
@@ -0,0 +1,31 @@
+package bossfight;
+
+import java.nio.FloatBuffer;
+
+// Where SpriteBatch sends its finished vertex data. The GL implementation
+// streams it through a VBO; the recording one just counts, so batching can be
+// checked (BatchCheck) and benchmarked (RenderBenchmark) without a GPU.
+public interface RenderBackend {
+
+  // Called once per flush with every quad of the flush, grouped by texture
+  void upload(FloatBuffer vertices, int floatCount);
+
+  // Draws quadCount quads of the last upload, starting at firstQuad
+  void drawQuads(Texture texture, int firstQuad, int quadCount);
+
+  // Called after the last drawQuads of a flush, to restore GL state
+  void endFlush();
+
+  // Static geometry kept on the GPU between frames, in the same vertex
+  // layout as the batch. Returns a handle for the other static calls.
+  int createStaticBuffer(int floatCapacity);
+
+  // Overwrites floatCount floats starting at floatOffset
+  void updateStaticBuffer(int buffer, int floatOffset, FloatBuffer data, int floatCount);
+
+  void drawStaticQuads(int buffer, Texture texture, int quadCount);
+
+  void deleteStaticBuffer(int buffer);
+
+  void dispose();
+}
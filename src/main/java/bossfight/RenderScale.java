@@ -0,0 +1,116 @@
+package bossfight;
+
+// What fraction of the window's resolution the scene is drawn at, in each
+// direction. Either fixed, or adaptive: fed the GPU time of each frame, it
+// steps down while frames are over budget and creeps back up when there's
+// headroom. The HUD is always drawn at full resolution on top.
+//
+//   -Dbossfight.renderScale=0.75   always 75%
+//   -Dbossfight.renderScale=auto   adaptive, aiming at -Dbossfight.targetFps (60)
+//
+// No GL here; Game pairs it with a RenderTarget and a GpuTimer.
+public class RenderScale {
+
+  static final float MIN = 0.5f;
+  static final float MAX = 1f;
+  // Scales are multiples of this, so the offscreen target isn't
+  // reallocated for every tiny adjustment
+  static final float STEP = 0.05f;
+
+  // Share of the frame budget the GPU should use: over HIGH scale down,
+  // under LOW scale up, and when scaling down aim for TARGET
+  private static final float HIGH = 0.9f;
+  private static final float LOW = 0.65f;
+  private static final float TARGET = 0.8f;
+
+  // A change takes a few frames to show up in the (late) timings, so hold
+  // still for a while after each one
+  private static final int SETTLE_FRAMES = 30;
+  private static final float SMOOTHING = 0.1f;
+
+  private final boolean adaptive;
+  private final float budgetNanos;
+  private float scale;
+
+  private float smoothedNanos = -1f;
+  private int settle = 0;
+
+  // Fixed scale
+  public RenderScale(float scale) {
+    this.adaptive = false;
+    this.budgetNanos = 0f;
+    this.scale = clamp(scale);
+  }
+
+  // Adaptive, starting at full resolution
+  public RenderScale(int targetFps) {
+    this.adaptive = true;
+    this.budgetNanos = 1e9f / Math.max(1, targetFps);
+    this.scale = MAX;
+  }
+
+  // From -Dbossfight.renderScale, or null to draw straight to the window
+  static RenderScale fromProperties() {
+    String s = System.getProperty("bossfight.renderScale");
+    if (s == null)
+      return null;
+    if (s.equalsIgnoreCase("auto"))
+      return new RenderScale(Integer.getInteger("bossfight.targetFps", 60));
+
+    try {
+      float fixed = Float.parseFloat(s);
+      return fixed >= MAX ? null : new RenderScale(fixed);
+    } catch (NumberFormatException e) {
+      System.err.println("Ignoring bossfight.renderScale=" + s + ": expected a number or 'auto'");
+      return null;
+    }
+  }
+
+  // One frame's GPU time from GpuTimer.poll(); negative means no sample
+  public void sample(long gpuNanos) {
+    if (!adaptive || gpuNanos < 0)
+      return;
+
+    smoothedNanos = smoothedNanos < 0f ? gpuNanos : smoothedNanos + (gpuNanos - smoothedNanos) * SMOOTHING;
+    if (settle > 0) {
+      settle--;
+      return;
+    }
+
+    float load = smoothedNanos / budgetNanos;
+    float next = scale;
+    if (load > HIGH) {
+      // GPU time goes roughly with pixel count, which is scale squared
+      float wanted = scale * (float) Math.sqrt(TARGET / load);
+      next = Math.min(scale - STEP, (float) Math.floor(wanted / STEP) * STEP);
+    } else if (load < LOW) {
+      next = scale + STEP;
+    }
+
+    next = clamp(next);
+    if (Math.abs(next - scale) > STEP * 0.5f) {
+      scale = next;
+      settle = SETTLE_FRAMES;
+      smoothedNanos = -1f; // old timings were at the old size
+    }
+  }
+
+  public float scale() {
+    return scale;
+  }
+
+  public boolean isAdaptive() {
+    return adaptive;
+  }
+
+  // Pixels to draw the scene at for a window dimension
+  public int pixels(int windowPixels) {
+    return Math.max(1, Math.round(windowPixels * scale));
+  }
+
+  // Snapped to STEP so the offscreen size only changes in whole steps
+  private static float clamp(float s) {
+    s = Math.round(s / STEP) * STEP;
+    return Math.max(MIN, Math.min(MAX, s));
+  }
+}
@@ -0,0 +1,123 @@
+package bossfight;
+
+// Draws every World entity that has a sprite, interpolated between ticks.
+// capture() runs on the simulation side and copies what draw() needs into
+// a FrameSnapshot, so drawing can happen on another thread. Players out of
+// lives aren't drawn, and the boss is tinted by its state.
+public final class RenderSystem {
+
+    private RenderSystem() {
+    }
+
+    public static void capture(World world, FrameSnapshot s) {
+        int n = 0;
+        for (int k = 0; k < world.archetypeCount(); k++) {
+            Archetype a = world.archetype(k);
+            if (!a.has(Archetype.POSITION | Archetype.BOUNDS | Archetype.SPRITE))
+                continue;
+
+            for (int i = 0; i < a.count; i++) {
+                if (a.lives != null && a.lives[i] <= 0)
+                    continue;
+
+                int added = add(s, n, a.x[i], a.y[i], a.prevX[i], a.prevY[i], a.w[i], a.h[i], a.sprite[i]);
+                if (added > n && a.state != null)
+                    bossTint(s, n, a.state[i], a.time[i]);
+                n = added;
+            }
+        }
+        finish(s, n);
+    }
+
+    public static void draw(FrameSnapshot s, SpriteBatch batch, float alpha) {
+        float[] x = s.worldX, y = s.worldY, px = s.worldPrevX, py = s.worldPrevY;
+        float[] r = s.worldR, g = s.worldG, b = s.worldB;
+        for (int i = 0; i < s.worldCount; i++) {
+            float rx = px[i] + (x[i] - px[i]) * alpha;
+            float ry = py[i] + (y[i] - py[i]) * alpha;
+            if (!s.view.isVisible(rx, ry, s.worldW[i], s.worldH[i]))
+                continue;
+
+            boolean tinted = r[i] != 1f || g[i] != 1f || b[i] != 1f;
+            if (tinted)
+                batch.setColor(r[i], g[i], b[i], 1f);
+            batch.draw(s.worldSprite[i], rx, ry, s.worldW[i], s.worldH[i]);
+            if (tinted)
+                batch.resetColor();
+        }
+    }
+
+    // Writes one untinted sprite to slot n of s and returns the next free
+    // slot. Entities without a sprite yet (textures still loading) are
+    // skipped and n comes back unchanged.
+    static int add(FrameSnapshot s, int n, float x, float y, float prevX, float prevY,
+            float w, float h, TextureRegion sprite) {
+        if (sprite == null)
+            return n;
+
+        s.ensureWorldCapacity(n + 1);
+        s.worldX[n] = x;
+        s.worldY[n] = y;
+        s.worldPrevX[n] = prevX;
+        s.worldPrevY[n] = prevY;
+        s.worldW[n] = w;
+        s.worldH[n] = h;
+        s.worldSprite[n] = sprite;
+        s.worldR[n] = s.worldG[n] = s.worldB[n] = 1f;
+        return n + 1;
+    }
+
+    // Sets the snapshot's sprite count to n
+    static void finish(FrameSnapshot s, int n) {
+        // Don't keep sprites of entities that are gone
+        for (int i = n; i < s.worldCount; i++)
+            s.worldSprite[i] = null;
+        s.worldCount = n;
+    }
+
+    // Colours slot n of s by the boss's state; time is the boss's clock,
+    // for the telegraph pulse
+    static void bossTint(FrameSnapshot s, int n, BossSystem.State state, float time) {
+        // Choose tint based on state
+        float r = 1f, g = 1f, b = 1f;
+
+        switch (state) {
+            case IDLE -> {
+                // normal colour, maybe slight blue tint
+                r = 0.9f;
+                g = 0.9f;
+                b = 1.0f;
+            }
+            case TELEGRAPH -> {
+                // warning: flash red/orange
+                r = 1.0f;
+                g = 0.4f;
+                b = 0.4f;
+            }
+            case ATTACK -> {
+                // bright yellow while firing
+                r = 1.0f;
+                g = 1.0f;
+                b = 0.4f;
+            }
+            case COOLDOWN -> {
+                // desaturated / cooled-down colour
+                r = 0.4f;
+                g = 0.5f;
+                b = 0.8f;
+            }
+        }
+
+        // Pulse the telegraph visually
+        if (state == BossSystem.State.TELEGRAPH) {
+            float t = (float) (Math.sin(time * 10.0) * 0.25 + 0.75);
+            r *= t;
+            g *= t;
+            b *= t;
+        }
+
+        s.worldR[n] = r;
+        s.worldG[n] = g;
+        s.worldB[n] = b;
+    }
+}
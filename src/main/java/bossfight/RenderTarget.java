@@ -0,0 +1,85 @@
+package bossfight;
+
+import java.nio.ByteBuffer;
+
+import static org.lwjgl.opengl.GL11.GL_COLOR_BUFFER_BIT;
+import static org.lwjgl.opengl.GL11.GL_LINEAR;
+import static org.lwjgl.opengl.GL11.GL_TEXTURE_2D;
+import static org.lwjgl.opengl.GL11.glViewport;
+import static org.lwjgl.opengl.GL30.GL_COLOR_ATTACHMENT0;
+import static org.lwjgl.opengl.GL30.GL_DRAW_FRAMEBUFFER;
+import static org.lwjgl.opengl.GL30.GL_FRAMEBUFFER;
+import static org.lwjgl.opengl.GL30.GL_FRAMEBUFFER_COMPLETE;
+import static org.lwjgl.opengl.GL30.GL_READ_FRAMEBUFFER;
+import static org.lwjgl.opengl.GL30.glBindFramebuffer;
+import static org.lwjgl.opengl.GL30.glBlitFramebuffer;
+import static org.lwjgl.opengl.GL30.glCheckFramebufferStatus;
+import static org.lwjgl.opengl.GL30.glDeleteFramebuffers;
+import static org.lwjgl.opengl.GL30.glFramebufferTexture2D;
+import static org.lwjgl.opengl.GL30.glGenFramebuffers;
+
+// An offscreen framebuffer with one RGBA colour texture, for drawing the
+// scene below window resolution and stretching it up afterwards.
+public class RenderTarget {
+
+  private int fbo = -1;
+  private Texture color;
+  private int width, height;
+
+  // (Re)creates the framebuffer if it isn't already this size
+  public void ensure(int w, int h) {
+    w = Math.max(1, w);
+    h = Math.max(1, h);
+    if (fbo != -1 && w == width && h == height)
+      return;
+
+    dispose();
+    width = w;
+    height = h;
+
+    color = new Texture((ByteBuffer) null, w, h);
+    fbo = glGenFramebuffers();
+    glBindFramebuffer(GL_FRAMEBUFFER, fbo);
+    glFramebufferTexture2D(GL_FRAMEBUFFER, GL_COLOR_ATTACHMENT0, GL_TEXTURE_2D, color.id, 0);
+    int status = glCheckFramebufferStatus(GL_FRAMEBUFFER);
+    glBindFramebuffer(GL_FRAMEBUFFER, 0);
+
+    if (status != GL_FRAMEBUFFER_COMPLETE) {
+      dispose();
+      throw new IllegalStateException("Framebuffer incomplete: 0x" + Integer.toHexString(status));
+    }
+  }
+
+  // Draw into this target from now on, with the GL viewport covering it
+  public void bind() {
+    glBindFramebuffer(GL_FRAMEBUFFER, fbo);
+    glViewport(0, 0, width, height);
+  }
+
+  // Stretches the contents over the window (bilinear) and goes back to
+  // drawing on the window at full size
+  public void blitToWindow(int windowW, int windowH) {
+    glBindFramebuffer(GL_READ_FRAMEBUFFER, fbo);
+    glBindFramebuffer(GL_DRAW_FRAMEBUFFER, 0);
+    glBlitFramebuffer(0, 0, width, height, 0, 0, windowW, windowH, GL_COLOR_BUFFER_BIT, GL_LINEAR);
+    glBindFramebuffer(GL_FRAMEBUFFER, 0);
+    glViewport(0, 0, windowW, windowH);
+  }
+
+  public int width() {
+    return width;
+  }
+
+  public int height() {
+    return height;
+  }
+
+  public void dispose() {
+    if (fbo != -1)
+      glDeleteFramebuffers(fbo);
+    if (color != null)
+      color.dispose();
+    fbo = -1;
+    color = null;
+  }
+}
@@ -0,0 +1,226 @@
+package bossfight;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+// Headless checks that two ways of running the simulation agree bit for
+// bit, by comparing the state hash after every tick (or the bullet arrays
+// after every kernel call). Exits with status 1 on the first mismatch, so
+// it can gate a build or a CI job:
+//
+//   mvn exec:java -Dexec.mainClass=bossfight.SimCheck -Dexec.args="parallel"
+//
+// Checks:
+//   parallel [bullets] [ticks]   serial vs ForkJoin bullet integration
+//   simd [bullets] [rounds]      scalar vs VectorBulletKernel, on random pools
+//                                (needs --add-modules jdk.incubator.vector,
+//                                which .mvn/jvm.config passes to exec:java)
+//   restore [ticks]              a run vs the same run replayed after
+//                                Game.restore of a GameState saved before it
+public class SimCheck {
+
+    private SimCheck() {
+    }
+
+    // -----------------------------
+    // PARALLEL
+    // -----------------------------
+
+    // Plays the same fight twice from a pool of the given size, once with
+    // Bullet.update always serial and once always parallel. Returns the
+    // first tick whose state hash differs (0 is the initial state), or -1.
+    public static long verifyParallel(int bullets, int ticks) {
+        int threshold = Bullet.parallelThreshold;
+        try {
+            Bullet.parallelThreshold = Integer.MAX_VALUE;
+            long[] serial = play(bullets, ticks);
+            Bullet.parallelThreshold = 0;
+            long[] parallel = play(bullets, ticks);
+            return firstDifference(serial, parallel);
+        } finally {
+            Bullet.parallelThreshold = threshold;
+        }
+    }
+
+    // State hash before the first tick and after each one, for a bot fight
+    // starting with a seeded spread of enemy bullets that ricochet a few
+    // times, so the wall pass runs in every chunk as well
+    private static long[] play(int bullets, int ticks) {
+        Game game = HeadlessRunner.newHeadlessGame(() -> 0);
+        game.input = new BotInput(game);
+        game.walls.bounces = 3;
+        game.bullets = new BulletPool(bullets + Game.MAX_BULLETS);
+        fill(game.bullets, bullets, game.width, game.height, new Random(1));
+        return run(game, ticks);
+    }
+
+    // -----------------------------
+    // SIMD
+    // -----------------------------
+
+    // Runs each scalar kernel and its VectorBulletKernel twin on identical
+    // copies of a random pool and compares every output array. Returns the
+    // first round where they differ, or -1.
+    public static long verifySimd(int bullets, int rounds) {
+        Random random = new Random(1);
+        BulletPool scalar = new BulletPool(bullets), vector = new BulletPool(bullets);
+        int[] scalarHits = new int[bullets], vectorHits = new int[bullets];
+
+        for (int round = 0; round < rounds; round++) {
+            // Odd sizes so the vector loops finish with a partial tail
+            int n = bullets - random.nextInt(Math.min(bullets, 64));
+            scramble(scalar, n, random);
+            vector.copyFrom(scalar);
+
+            float dt = 1f / (15 + random.nextInt(226));
+            float tx = random.nextFloat() * 1280, ty = random.nextFloat() * 720;
+            float tw = 8 + random.nextFloat() * 120, th = 8 + random.nextFloat() * 120;
+            float tdx = (random.nextFloat() - 0.5f) * 20, tdy = (random.nextFloat() - 0.5f) * 20;
+            boolean friendly = random.nextBoolean();
+
+            int a = BulletKernel.overlapsScalar(scalar, friendly, tx, ty, tw, th, 0, n, scalarHits, 0);
+            int b = VectorBulletKernel.overlaps(vector, friendly, tx, ty, tw, th, vectorHits);
+            if (a != b || !Arrays.equals(scalarHits, 0, a, vectorHits, 0, b))
+                return round;
+
+            a = BulletKernel.sweepsScalar(scalar, friendly, dt, tx, ty, tw, th, tdx, tdy, 0, n, scalarHits, 0);
+            b = VectorBulletKernel.sweeps(vector, friendly, dt, tx, ty, tw, th, tdx, tdy, n, vectorHits);
+            if (a != b || !Arrays.equals(scalarHits, 0, a, vectorHits, 0, b))
+                return round;
+
+            // A sub-range, as the parallel integrator hands out
+            int from = random.nextInt(n), to = from + random.nextInt(n - from + 1);
+            BulletKernel.integrateScalar(scalar, from, to, dt, -32, 1312, -32, 752);
+            VectorBulletKernel.integrate(vector, from, to, dt, -32, 1312, -32, 752);
+            if (!Arrays.equals(scalar.x, vector.x) || !Arrays.equals(scalar.y, vector.y)
+                    || !Arrays.equals(scalar.alive, vector.alive))
+                return round;
+        }
+        return -1;
+    }
+
+    // n bullets spread a little past the cull area, some dead, both sides,
+    // and a few with a zero velocity component for the swept test's
+    // divide-by-zero path
+    private static void scramble(BulletPool pool, int n, Random random) {
+        pool.clear();
+        for (int i = 0; i < n; i++) {
+            float vx = random.nextInt(10) == 0 ? 0f : (random.nextFloat() - 0.5f) * 2000f;
+            float vy = random.nextInt(10) == 0 ? 0f : (random.nextFloat() - 0.5f) * 2000f;
+            pool.spawn(-64 + random.nextFloat() * 1408, -64 + random.nextFloat() * 848, vx, vy,
+                    random.nextBoolean());
+            pool.alive[i] = random.nextInt(8) != 0;
+        }
+    }
+
+    // -----------------------------
+    // RESTORE
+    // -----------------------------
+
+    // Saves a fight partway in, plays on for the given ticks, rewinds with
+    // restore() and plays the same ticks again. Returns the first tick of
+    // the replay whose state hash differs from the first time through (0 is
+    // the restored state itself), or -1.
+    public static long verifyRestore(int ticks) {
+        Game game = HeadlessRunner.newHeadlessGame(() -> 0);
+        // Fires throughout and drifts up and down, turning every 40 ticks.
+        // Depends on the tick alone, so it replays the same after a rewind.
+        game.input = () -> InputSource.FIRE
+                | ((game.clock.ticks() / 40) % 2 == 0 ? InputSource.UP : InputSource.DOWN);
+        // Just into phase 2, so minions are summoned straight away and the
+        // boss enrages (and summons gunners) partway through
+        Archetype boss = game.world.archetypeOf(game.boss);
+        int b = game.world.indexOf(game.boss);
+        boss.hp[b] = boss.maxHp[b] * 0.32f;
+        // and enough lives to still be fighting at the end
+        game.world.archetypeOf(game.player).lives[game.world.indexOf(game.player)] = 20;
+
+        for (int t = 0; t < 120; t++)
+            game.update(1f / 60f);
+
+        GameState saved = game.newState();
+        game.save(saved);
+        long[] first = run(game, ticks);
+
+        game.restore(saved);
+        long[] again = run(game, ticks);
+        return firstDifference(first, again);
+    }
+
+    // -----------------------------
+    // HELPERS
+    // -----------------------------
+
+    // State hash before the first of ticks updates and after each one
+    private static long[] run(Game game, int ticks) {
+        long[] hashes = new long[ticks + 1];
+        hashes[0] = game.stateHash();
+        for (int t = 1; t <= ticks; t++) {
+            game.update(1f / 60f);
+            hashes[t] = game.stateHash();
+        }
+        return hashes;
+    }
+
+    static void fill(BulletPool pool, int n, int width, int height, Random random) {
+        for (int i = 0; i < n; i++) {
+            pool.spawn(64 + random.nextFloat() * (width - 128), 64 + random.nextFloat() * (height - 128),
+                    (random.nextFloat() - 0.5f) * 400f, (random.nextFloat() - 0.5f) * 400f, false);
+        }
+    }
+
+    private static long firstDifference(long[] a, long[] b) {
+        for (int t = 0; t < a.length; t++) {
+            if (a[t] != b[t])
+                return t;
+        }
+        return -1;
+    }
+
+    private static void report(String check, String unit, long diverged) {
+        if (diverged >= 0) {
+            System.out.println(check + ": DIVERGED at " + unit + " " + diverged);
+            System.exit(1);
+        }
+        System.out.println(check + ": OK");
+    }
+
+    private static int arg(String[] args, int i, int fallback) {
+        return args.length > i ? Integer.parseInt(args[i]) : fallback;
+    }
+
+    public static void main(String[] args) {
+        String check = args.length > 0 ? args[0] : "parallel";
+        switch (check) {
+            case "parallel" -> {
+                int bullets = arg(args, 1, 200_000);
+                int ticks = arg(args, 2, 600);
+                System.out.printf("parallel: %d bullets, %d ticks, %d workers%n", bullets, ticks,
+                        ForkJoinPool.commonPool().getParallelism());
+                report(check, "tick", verifyParallel(bullets, ticks));
+            }
+            case "simd" -> {
+                if (!BulletKernel.VECTORIZED) {
+                    System.err.println("simd: the vector kernel isn't loaded; run with"
+                            + " --add-modules jdk.incubator.vector and without -Dbossfight.simd=false");
+                    System.exit(2);
+                }
+                int bullets = arg(args, 1, 10_000);
+                int rounds = arg(args, 2, 1000);
+                System.out.printf("simd: %d bullets, %d rounds%n", bullets, rounds);
+                report(check, "round", verifySimd(bullets, rounds));
+            }
+            case "restore" -> {
+                int ticks = arg(args, 1, 600);
+                System.out.printf("restore: %d ticks%n", ticks);
+                report(check, "tick", verifyRestore(ticks));
+            }
+            default -> {
+                System.err.println("Usage: SimCheck parallel [bullets] [ticks] | simd [bullets] [rounds]"
+                        + " | restore [ticks]");
+                System.exit(2);
+            }
+        }
+    }
+}
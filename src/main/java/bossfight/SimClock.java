@@ -0,0 +1,29 @@
+package bossfight;
+
+// Simulation time, advanced only by Game.update. Anything time-based in the
+// simulation reads this instead of the wall clock, so a headless run at any
+// speed sees exactly the same timeline as a windowed one.
+public class SimClock {
+
+    private double time = 0;
+    private long ticks = 0;
+
+    public void advance(float dt) {
+        time += dt;
+        ticks++;
+    }
+
+    // Seconds of simulated time since the game was created
+    public double time() {
+        return time;
+    }
+
+    public long ticks() {
+        return ticks;
+    }
+
+    void copyFrom(SimClock other) {
+        time = other.time;
+        ticks = other.ticks;
+    }
+}
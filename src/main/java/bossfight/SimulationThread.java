@@ -0,0 +1,96 @@
+package bossfight;
+
+import java.util.concurrent.locks.LockSupport;
+
+// Runs Game.update at a fixed rate on its own thread and publishes a
+// FrameSnapshot after each batch of ticks. The render thread only ever
+// touches TripleBuffer.latest(), so a slow frame or a vsync wait never
+// holds up the simulation, and a slow tick never blocks a swap. Each
+// snapshot also carries game.profiler's totals, so the main thread's
+// profiler can show the tick sections too.
+public class SimulationThread {
+
+    private final Game game;
+    private final FixedTimestep timestep;
+    private final TripleBuffer<FrameSnapshot> snapshots;
+    private final InputRecorder recorder;
+
+    private final Thread thread;
+    private volatile boolean running = true;
+    private volatile Throwable failure;
+
+    // recorder may be null
+    public SimulationThread(Game game, FixedTimestep timestep, InputRecorder recorder) {
+        this.game = game;
+        this.timestep = timestep;
+        this.recorder = recorder;
+
+        // Every slot starts as the initial state, so the first frame has
+        // something to draw
+        FrameSnapshot a = game.newSnapshot(), b = game.newSnapshot(), c = game.newSnapshot();
+        game.snapshot(a);
+        game.snapshot(b);
+        game.snapshot(c);
+        snapshots = new TripleBuffer<>(a, b, c);
+
+        thread = new Thread(this::run, "simulation");
+        thread.setDaemon(true);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    // The newest published frame; call from the render thread only
+    public FrameSnapshot latest() {
+        if (failure != null)
+            throw new RuntimeException("Simulation thread failed", failure);
+        return snapshots.latest();
+    }
+
+    public void stop() {
+        running = false;
+        LockSupport.unpark(thread);
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void run() {
+        long tickNanos = (long) (timestep.dt * 1e9);
+        long last = System.nanoTime();
+
+        try {
+            while (running) {
+                long now = System.nanoTime();
+                int ticks = timestep.advance((now - last) / 1e9);
+                last = now;
+
+                for (int i = 0; i < ticks; i++) {
+                    game.update(timestep.dt);
+                    if (recorder != null)
+                        recorder.endTick(game);
+                }
+
+                if (ticks > 0) {
+                    FrameSnapshot s = snapshots.back();
+                    game.snapshot(s);
+                    game.profiler.publish(s);
+                    s.tickNanos = tickNanos;
+                    s.capturedAt = System.nanoTime();
+                    snapshots.publish();
+
+                    if (s.quitRequested)
+                        return;
+                }
+
+                // Sleep until the next tick is due
+                LockSupport.parkNanos((long) ((1f - timestep.alpha()) * tickNanos));
+            }
+        } catch (Throwable t) {
+            failure = t;
+        }
+    }
+}
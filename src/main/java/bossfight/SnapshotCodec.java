@@ -0,0 +1,221 @@
+package bossfight;
+
+import java.nio.ByteBuffer;
+
+import static bossfight.NetProtocol.getSigned;
+import static bossfight.NetProtocol.getVarint;
+import static bossfight.NetProtocol.putSigned;
+import static bossfight.NetProtocol.putVarint;
+
+// Delta compression of NetStates. A snapshot is written against a base
+// state the client is known to have (or against nothing, for a full one)
+// and only carries what differs from it:
+//
+//   int tick, int base tick (-1 = none), float dt, varint width, height,
+//   byte flags, boss and player fields as signed deltas from the base,
+//   varint minion count, per minion its position as a signed delta from
+//   the same slot in the base (or from 0) and a varint size,
+//   varint bullet count,
+//   a bitmap over the slots the base also had, one bit per changed bullet,
+//   per changed bullet a byte of changed fields and their signed deltas,
+//   new bullets in full, then a bitmap of which new bullets are friendly.
+//
+// Bullets fly in straight lines, so a bullet's position is compared with
+// where its base position and velocity put it by now rather than with the
+// base position itself. NetState snaps bullets onto those lines, so most
+// of them don't change at all. Slots are matched by index; the pool's
+// swap-with-last removal keeps most indices stable from one tick to the
+// next.
+public class SnapshotCodec {
+
+    // Changed-field bits for one bullet
+    private static final int BX = 1, BY = 2, BVX = 4, BVY = 8, BFRIENDLY = 16;
+
+    private static final int GAME_OVER = 1;
+
+    // Stand-in base for full snapshots
+    private static final NetState EMPTY = new NetState(0);
+
+    // Worst case for a full snapshot of n bullets
+    static int maxSize(int bullets) {
+        return 64 + NetState.MAX_PLAYERS * 20 + NetState.MAX_MINIONS * 16 + bullets * 24;
+    }
+
+    // Writes cur as a delta from base (null for a full snapshot)
+    static void encode(NetState base, NetState cur, float dt, ByteBuffer out) {
+        NetState b = base != null ? base : EMPTY;
+
+        out.putInt(cur.tick);
+        out.putInt(base != null ? base.tick : -1);
+        out.putFloat(dt);
+        putVarint(out, cur.width);
+        putVarint(out, cur.height);
+        out.put((byte) (cur.gameOver ? GAME_OVER : 0));
+
+        putSigned(out, cur.bossX - b.bossX);
+        putSigned(out, cur.bossY - b.bossY);
+        putSigned(out, cur.bossHp - b.bossHp);
+        out.put((byte) (cur.bossPhase << 4 | cur.bossState));
+
+        out.put((byte) cur.playerMask);
+        for (int k = 0; k < NetState.MAX_PLAYERS; k++) {
+            if ((cur.playerMask & 1 << k) == 0)
+                continue;
+            boolean had = (b.playerMask & 1 << k) != 0;
+            putSigned(out, cur.playerX[k] - (had ? b.playerX[k] : 0));
+            putSigned(out, cur.playerY[k] - (had ? b.playerY[k] : 0));
+            out.put((byte) (cur.playerLives[k] << 1 | cur.playerInvuln[k]));
+        }
+
+        putVarint(out, cur.minionCount);
+        for (int i = 0; i < cur.minionCount; i++) {
+            boolean had = i < b.minionCount;
+            putSigned(out, cur.minionX[i] - (had ? b.minionX[i] : 0));
+            putSigned(out, cur.minionY[i] - (had ? b.minionY[i] : 0));
+            putVarint(out, cur.minionSize[i]);
+        }
+
+        int n = cur.bulletCount;
+        int common = Math.min(n, b.bulletCount);
+        int elapsed = cur.tick - b.tick;
+        putVarint(out, n);
+
+        int bitmap = out.position();
+        for (int i = 0; i < (common + 7) >> 3; i++)
+            out.put((byte) 0);
+
+        for (int i = 0; i < common; i++) {
+            int dx = cur.bulletX[i] - (b.bulletX[i] + b.bulletVx[i] * elapsed);
+            int dy = cur.bulletY[i] - (b.bulletY[i] + b.bulletVy[i] * elapsed);
+            int dvx = cur.bulletVx[i] - b.bulletVx[i];
+            int dvy = cur.bulletVy[i] - b.bulletVy[i];
+
+            int fields = (dx != 0 ? BX : 0) | (dy != 0 ? BY : 0) | (dvx != 0 ? BVX : 0)
+                    | (dvy != 0 ? BVY : 0) | (cur.bulletFriendly[i] != b.bulletFriendly[i] ? BFRIENDLY : 0);
+            if (fields == 0)
+                continue;
+
+            out.put(bitmap + (i >> 3), (byte) (out.get(bitmap + (i >> 3)) | 1 << (i & 7)));
+            out.put((byte) fields);
+            if (dx != 0)
+                putSigned(out, dx);
+            if (dy != 0)
+                putSigned(out, dy);
+            if (dvx != 0)
+                putSigned(out, dvx);
+            if (dvy != 0)
+                putSigned(out, dvy);
+        }
+
+        for (int i = common; i < n; i++) {
+            putVarint(out, cur.bulletX[i]);
+            putVarint(out, cur.bulletY[i]);
+            putSigned(out, cur.bulletVx[i]);
+            putSigned(out, cur.bulletVy[i]);
+        }
+        for (int i = common; i < n; i += 8) {
+            int bits = 0;
+            for (int j = 0; j < 8 && i + j < n; j++) {
+                if (cur.bulletFriendly[i + j])
+                    bits |= 1 << j;
+            }
+            out.put((byte) bits);
+        }
+    }
+
+    // Base tick a snapshot was encoded against, without decoding it
+    static int baseTick(ByteBuffer in) {
+        return in.getInt(in.position() + 4);
+    }
+
+    // Rebuilds a snapshot into out. base must be the state baseTick()
+    // names (ignored for a full snapshot). Returns the snapshot's dt.
+    static float decode(NetState base, ByteBuffer in, NetState out) {
+        out.tick = in.getInt();
+        NetState b = in.getInt() >= 0 ? base : EMPTY;
+        float dt = in.getFloat();
+        out.width = getVarint(in);
+        out.height = getVarint(in);
+        out.gameOver = (in.get() & GAME_OVER) != 0;
+
+        out.bossX = b.bossX + getSigned(in);
+        out.bossY = b.bossY + getSigned(in);
+        out.bossHp = b.bossHp + getSigned(in);
+        int boss = in.get();
+        out.bossPhase = boss >> 4 & 0xF;
+        out.bossState = boss & 0xF;
+
+        out.playerMask = in.get() & 0xFF;
+        for (int k = 0; k < NetState.MAX_PLAYERS; k++) {
+            if ((out.playerMask & 1 << k) == 0)
+                continue;
+            boolean had = (b.playerMask & 1 << k) != 0;
+            out.playerX[k] = (had ? b.playerX[k] : 0) + getSigned(in);
+            out.playerY[k] = (had ? b.playerY[k] : 0) + getSigned(in);
+            int lives = in.get();
+            out.playerLives[k] = lives >> 1;
+            out.playerInvuln[k] = lives & 1;
+        }
+
+        out.minionCount = getVarint(in);
+        if (out.minionCount > NetState.MAX_MINIONS)
+            throw new IllegalArgumentException("snapshot has " + out.minionCount + " minions, room for "
+                    + NetState.MAX_MINIONS);
+        for (int i = 0; i < out.minionCount; i++) {
+            boolean had = i < b.minionCount;
+            out.minionX[i] = (had ? b.minionX[i] : 0) + getSigned(in);
+            out.minionY[i] = (had ? b.minionY[i] : 0) + getSigned(in);
+            out.minionSize[i] = getVarint(in);
+        }
+
+        int n = getVarint(in);
+        if (n > out.bulletX.length)
+            throw new IllegalArgumentException("snapshot has " + n + " bullets, room for " + out.bulletX.length);
+        int common = Math.min(n, b.bulletCount);
+        int elapsed = out.tick - b.tick;
+
+        int bitmap = in.position();
+        in.position(bitmap + ((common + 7) >> 3));
+
+        for (int i = 0; i < common; i++) {
+            int x = b.bulletX[i] + b.bulletVx[i] * elapsed;
+            int y = b.bulletY[i] + b.bulletVy[i] * elapsed;
+            int vx = b.bulletVx[i], vy = b.bulletVy[i];
+            boolean friendly = b.bulletFriendly[i];
+
+            if ((in.get(bitmap + (i >> 3)) & 1 << (i & 7)) != 0) {
+                int fields = in.get();
+                if ((fields & BX) != 0)
+                    x += getSigned(in);
+                if ((fields & BY) != 0)
+                    y += getSigned(in);
+                if ((fields & BVX) != 0)
+                    vx += getSigned(in);
+                if ((fields & BVY) != 0)
+                    vy += getSigned(in);
+                if ((fields & BFRIENDLY) != 0)
+                    friendly = !friendly;
+            }
+
+            out.bulletX[i] = x;
+            out.bulletY[i] = y;
+            out.bulletVx[i] = vx;
+            out.bulletVy[i] = vy;
+            out.bulletFriendly[i] = friendly;
+        }
+
+        for (int i = common; i < n; i++) {
+            out.bulletX[i] = getVarint(in);
+            out.bulletY[i] = getVarint(in);
+            out.bulletVx[i] = getSigned(in);
+            out.bulletVy[i] = getSigned(in);
+        }
+        for (int i = common; i < n; i += 8) {
+            int bits = in.get();
+            for (int j = 0; j < 8 && i + j < n; j++)
+                out.bulletFriendly[i + j] = (bits & 1 << j) != 0;
+        }
+        out.bulletCount = n;
+        return dt;
+    }
+}
@@ -0,0 +1,166 @@
+package bossfight;
+
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+// Plays fight after fight in one Game with a BotInput, restarting with
+// Game.restartGame, for a fixed wall-clock time. Anything that grows across
+// restarts (heap, native memory) or slows down over time shows up in the
+// report. Prints progress every interval and a summary at the end:
+//
+//   mvn exec:java -Dexec.mainClass=bossfight.SoakRunner -Dexec.args="600"
+//
+// Args: [seconds] [tick rate in Hz] [max simulated seconds per fight]
+// [report interval in seconds]
+public class SoakRunner {
+
+    private final Game game;
+    private final float dt;
+    private final long maxFightTicks;
+
+    private final int[] outcomes = new int[HeadlessRunner.Outcome.values().length];
+    private long fights = 0;
+    private long ticks = 0;
+
+    private final List<MemoryPoolMXBean> pools = ManagementFactory.getMemoryPoolMXBeans();
+    private final List<GarbageCollectorMXBean> collectors = ManagementFactory.getGarbageCollectorMXBeans();
+    private final long gcCountStart, gcTimeStart;
+
+    // Resident set high-water mark, sampled after every tick batch. The heap
+    // peak comes from the JVM's own per-pool peaks instead, which also catch
+    // the top of each sawtooth between samples.
+    private long peakRss = 0;
+    private final long startRss;
+
+    public SoakRunner(int tickRate, int maxFightSeconds) {
+        dt = 1f / tickRate;
+        maxFightTicks = (long) maxFightSeconds * tickRate;
+
+        game = HeadlessRunner.newHeadlessGame(() -> 0);
+        game.input = new BotInput(game);
+
+        for (MemoryPoolMXBean pool : pools)
+            pool.resetPeakUsage();
+        gcCountStart = gcCount();
+        gcTimeStart = gcMillis();
+        startRss = residentBytes();
+    }
+
+    // Runs fights until the deadline, printing a line every reportNanos and
+    // the summary once time is up
+    public void run(long durationNanos, long reportNanos) {
+        long start = System.nanoTime();
+        long end = start + durationNanos;
+        long nextReport = start + reportNanos;
+        long fightStart = game.clock.ticks();
+
+        while (true) {
+            // Check the clock and memory every 256 ticks, not every tick
+            for (int i = 0; i < 256; i++) {
+                game.update(dt);
+                ticks++;
+
+                HeadlessRunner.Outcome outcome = null;
+                if (game.isGameOver())
+                    outcome = HeadlessRunner.Outcome.LOSS;
+                else if (game.isBossDefeated())
+                    outcome = HeadlessRunner.Outcome.WIN;
+                else if (game.clock.ticks() - fightStart >= maxFightTicks)
+                    outcome = HeadlessRunner.Outcome.TIMEOUT;
+
+                if (outcome != null) {
+                    outcomes[outcome.ordinal()]++;
+                    fights++;
+                    game.restartGame();
+                    fightStart = game.clock.ticks();
+                }
+            }
+
+            sampleMemory();
+            long now = System.nanoTime();
+            if (now >= end) {
+                report("total ", now - start);
+                return;
+            }
+            if (now >= nextReport) {
+                report("", now - start);
+                nextReport += reportNanos;
+            }
+        }
+    }
+
+    private void sampleMemory() {
+        peakRss = Math.max(peakRss, residentBytes());
+    }
+
+    private void report(String label, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        System.out.printf("%s%6.0fs  fights %d (win %d, loss %d, timeout %d)  %.0f ticks/s  "
+                + "gc %d pauses %d ms  heap peak %.1f MB  rss %.1f MB (peak %.1f, start %.1f)%n",
+                label, seconds, fights,
+                outcomes[HeadlessRunner.Outcome.WIN.ordinal()],
+                outcomes[HeadlessRunner.Outcome.LOSS.ordinal()],
+                outcomes[HeadlessRunner.Outcome.TIMEOUT.ordinal()],
+                ticks / seconds,
+                gcCount() - gcCountStart, gcMillis() - gcTimeStart,
+                peakHeap() / 1048576.0, residentBytes() / 1048576.0, peakRss / 1048576.0, startRss / 1048576.0);
+    }
+
+    // Sum of each heap pool's peak since the start. The pools peak at
+    // different moments (eden just before a collection, old gen after a
+    // promotion), so this is an upper bound on the heap ever in use at once.
+    private long peakHeap() {
+        long n = 0;
+        for (MemoryPoolMXBean pool : pools) {
+            if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null)
+                n += pool.getPeakUsage().getUsed();
+        }
+        return n;
+    }
+
+    private long gcCount() {
+        long n = 0;
+        for (GarbageCollectorMXBean gc : collectors)
+            n += Math.max(0, gc.getCollectionCount());
+        return n;
+    }
+
+    // Total collection time as the collectors report it. For the pausing
+    // collectors (G1 young/mixed, Parallel, Serial) that is pause time.
+    private long gcMillis() {
+        long ms = 0;
+        for (GarbageCollectorMXBean gc : collectors)
+            ms += Math.max(0, gc.getCollectionTime());
+        return ms;
+    }
+
+    // Resident set size from /proc, which also counts native allocations
+    // the heap numbers miss. 0 where /proc isn't available.
+    private static long residentBytes() {
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc/self/status"))) {
+                if (line.startsWith("VmRSS:"))
+                    return Long.parseLong(line.replaceAll("[^0-9]", "")) * 1024;
+            }
+        } catch (IOException | RuntimeException e) {
+            // Not Linux
+        }
+        return 0;
+    }
+
+    public static void main(String[] args) {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 600;
+        int tickRate = args.length > 1 ? Integer.parseInt(args[1]) : 60;
+        int maxFightSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 300;
+        int reportSeconds = args.length > 3 ? Integer.parseInt(args[3]) : 10;
+
+        SoakRunner soak = new SoakRunner(tickRate, maxFightSeconds);
+        soak.run(seconds * 1_000_000_000L, reportSeconds * 1_000_000_000L);
+    }
+}
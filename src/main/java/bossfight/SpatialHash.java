@@ -0,0 +1,224 @@
+package bossfight;
+
+import java.util.Arrays;
+
+// Uniform-grid broadphase for bullets against entities.
+//
+// Each tick: clear(), insert() every collidable target, then findBulletHits()
+// walks the bullet pool once. A bullet only looks at the few cells it covers,
+// so the cost is O(bullets + nearby pairs) rather than O(bullets * targets).
+//
+// Hits are swept over the tick (see BulletKernel.swept): targets are inserted
+// with how far they moved and cover every cell along the way, and bullets
+// look at every cell between where they started and ended the tick.
+public class SpatialHash {
+
+    private final float invCellSize;
+
+    // Hash buckets -> singly linked lists of entries
+    private final int[] bucketHead;
+    private final int bucketMask;
+
+    // One entry per (target, covered cell)
+    private int[] entryTarget = new int[64];
+    private int[] entryCellX = new int[64];
+    private int[] entryCellY = new int[64];
+    private int[] entryNext = new int[64];
+    private int entryCount = 0;
+
+    // Targets as plain boxes. owner/tag say what was hit, e.g. a World with
+    // the entity id as tag.
+    private float[] targetX = new float[16];
+    private float[] targetY = new float[16];
+    private float[] targetW = new float[16];
+    private float[] targetH = new float[16];
+    private float[] targetDx = new float[16];
+    private float[] targetDy = new float[16];
+    private Faction[] targetFaction = new Faction[16];
+    private Object[] targetOwner = new Object[16];
+    private int[] targetTag = new int[16];
+    private int targetCount = 0;
+
+    // Last bullet that tested each target, so a target spanning several of
+    // the bullet's cells is only reported once
+    private int[] lastTested = new int[16];
+
+    // Output: overlapping (bullet index, target index) pairs
+    private int[] pairBullet = new int[64];
+    private int[] pairTarget = new int[64];
+    private int pairCount = 0;
+
+    public SpatialHash(float cellSize, int bucketCount) {
+        if (Integer.bitCount(bucketCount) != 1)
+            throw new IllegalArgumentException("bucketCount must be a power of two: " + bucketCount);
+
+        this.invCellSize = 1f / cellSize;
+        this.bucketHead = new int[bucketCount];
+        this.bucketMask = bucketCount - 1;
+        Arrays.fill(bucketHead, -1);
+    }
+
+    public void clear() {
+        Arrays.fill(bucketHead, -1);
+        entryCount = 0;
+        Arrays.fill(targetOwner, 0, targetCount, null);
+        targetCount = 0;
+        pairCount = 0;
+    }
+
+    // A box centred on (x, y) that hasn't moved this tick
+    public void insert(float x, float y, float w, float h, Faction faction, Object owner, int tag) {
+        insert(x, y, w, h, 0f, 0f, faction, owner, tag);
+    }
+
+    // A box centred on (x, y) that moved by (dx, dy) this tick
+    public void insert(float x, float y, float w, float h, float dx, float dy,
+            Faction faction, Object owner, int tag) {
+        if (targetCount == targetX.length)
+            growTargets();
+
+        int target = targetCount++;
+        targetX[target] = x;
+        targetY[target] = y;
+        targetW[target] = w;
+        targetH[target] = h;
+        targetDx[target] = dx;
+        targetDy[target] = dy;
+        targetFaction[target] = faction;
+        targetOwner[target] = owner;
+        targetTag[target] = tag;
+
+        int cx0 = cell(Math.min(x, x - dx) - w / 2f);
+        int cx1 = cell(Math.max(x, x - dx) + w / 2f);
+        int cy0 = cell(Math.min(y, y - dy) - h / 2f);
+        int cy1 = cell(Math.max(y, y - dy) + h / 2f);
+
+        for (int cy = cy0; cy <= cy1; cy++) {
+            for (int cx = cx0; cx <= cx1; cx++) {
+                addEntry(target, cx, cy);
+            }
+        }
+    }
+
+    // Single pass over the pool. Records every live bullet that touched an
+    // entity of the opposite faction during the last dt seconds and returns
+    // the number of pairs. Bullets spawned since the last Bullet.update
+    // count from where they are (see BulletKernel.sweeps).
+    public int findBulletHits(BulletPool pool, float dt) {
+        pairCount = 0;
+        Arrays.fill(lastTested, 0, targetCount, -1);
+
+        if (targetCount == 0)
+            return 0;
+
+        float hw = Bullet.WIDTH / 2f;
+        float hh = Bullet.HEIGHT / 2f;
+        int moved = pool.moved();
+
+        for (int i = 0; i < pool.count; i++) {
+            if (!pool.alive[i])
+                continue;
+
+            float bx = pool.x[i];
+            float by = pool.y[i];
+            float mx = i < moved ? pool.vx[i] * dt : 0f;
+            float my = i < moved ? pool.vy[i] * dt : 0f;
+            Faction bulletFaction = pool.friendly[i] ? Faction.PLAYER : Faction.ENEMY;
+
+            int cx0 = cell(Math.min(bx, bx - mx) - hw);
+            int cx1 = cell(Math.max(bx, bx - mx) + hw);
+            int cy0 = cell(Math.min(by, by - my) - hh);
+            int cy1 = cell(Math.max(by, by - my) + hh);
+
+            for (int cy = cy0; cy <= cy1; cy++) {
+                for (int cx = cx0; cx <= cx1; cx++) {
+                    for (int n = bucketHead[bucket(cx, cy)]; n != -1; n = entryNext[n]) {
+                        if (entryCellX[n] != cx || entryCellY[n] != cy)
+                            continue;
+
+                        int t = entryTarget[n];
+                        if (lastTested[t] == i)
+                            continue;
+                        lastTested[t] = i;
+
+                        if (targetFaction[t] != bulletFaction
+                                && BulletKernel.swept(bx - targetX[t], by - targetY[t],
+                                        mx - targetDx[t], my - targetDy[t],
+                                        (Bullet.WIDTH + targetW[t]) * 0.5f,
+                                        (Bullet.HEIGHT + targetH[t]) * 0.5f)) {
+                            addPair(i, t);
+                        }
+                    }
+                }
+            }
+        }
+        return pairCount;
+    }
+
+    public int pairCount() {
+        return pairCount;
+    }
+
+    public int pairBullet(int k) {
+        return pairBullet[k];
+    }
+
+    // The owner passed to insert() for the target of pair k
+    public Object pairTarget(int k) {
+        return targetOwner[pairTarget[k]];
+    }
+
+    public int pairTag(int k) {
+        return targetTag[pairTarget[k]];
+    }
+
+    private int cell(float v) {
+        return (int) Math.floor(v * invCellSize);
+    }
+
+    private int bucket(int cx, int cy) {
+        return ((cx * 73856093) ^ (cy * 19349663)) & bucketMask;
+    }
+
+    private void growTargets() {
+        int n = targetCount * 2;
+        targetX = Arrays.copyOf(targetX, n);
+        targetY = Arrays.copyOf(targetY, n);
+        targetW = Arrays.copyOf(targetW, n);
+        targetH = Arrays.copyOf(targetH, n);
+        targetDx = Arrays.copyOf(targetDx, n);
+        targetDy = Arrays.copyOf(targetDy, n);
+        targetFaction = Arrays.copyOf(targetFaction, n);
+        targetOwner = Arrays.copyOf(targetOwner, n);
+        targetTag = Arrays.copyOf(targetTag, n);
+        lastTested = Arrays.copyOf(lastTested, n);
+    }
+
+    private void addEntry(int target, int cx, int cy) {
+        if (entryCount == entryTarget.length) {
+            int n = entryCount * 2;
+            entryTarget = Arrays.copyOf(entryTarget, n);
+            entryCellX = Arrays.copyOf(entryCellX, n);
+            entryCellY = Arrays.copyOf(entryCellY, n);
+            entryNext = Arrays.copyOf(entryNext, n);
+        }
+
+        int b = bucket(cx, cy);
+        int n = entryCount++;
+        entryTarget[n] = target;
+        entryCellX[n] = cx;
+        entryCellY[n] = cy;
+        entryNext[n] = bucketHead[b];
+        bucketHead[b] = n;
+    }
+
+    private void addPair(int bullet, int target) {
+        if (pairCount == pairBullet.length) {
+            pairBullet = Arrays.copyOf(pairBullet, pairCount * 2);
+            pairTarget = Arrays.copyOf(pairTarget, pairCount * 2);
+        }
+        pairBullet[pairCount] = bullet;
+        pairTarget[pairCount] = target;
+        pairCount++;
+    }
+}
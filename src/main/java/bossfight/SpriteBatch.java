@@ -0,0 +1,215 @@
+package bossfight;
+
+import java.nio.FloatBuffer;
+
+import org.lwjgl.BufferUtils;
+
+// Collects textured quads on the CPU and hands them to a RenderBackend in
+// one upload per flush, with one draw call per texture.
+//
+// Quads are grouped by texture in the order each texture was first used
+// since the last flush, so layering only holds across textures that don't
+// interleave. Call flush() before switching to anything drawn outside the
+// batch (HUD, text) or when strict ordering matters.
+public class SpriteBatch {
+
+  public static final int FLOATS_PER_VERTEX = 8; // x, y, u, v, r, g, b, a
+  public static final int FLOATS_PER_QUAD = FLOATS_PER_VERTEX * 4;
+
+  private static final int MAX_TEXTURES = 16;
+
+  private final RenderBackend backend;
+  private final int maxQuads;
+
+  // Quads in submission order, plus which texture slot each one uses
+  private final float[] staging;
+  private final int[] quadSlot;
+  private int quadCount = 0;
+
+  private final Texture[] textures = new Texture[MAX_TEXTURES];
+  private final int[] slotQuads = new int[MAX_TEXTURES];
+  private final int[] slotStart = new int[MAX_TEXTURES];
+  private int textureCount = 0;
+
+  // Grouped copy of staging, reused for every upload
+  private final FloatBuffer vertices;
+
+  private float r = 1f, g = 1f, b = 1f, a = 1f;
+
+  private int drawCalls = 0;
+
+  public SpriteBatch(RenderBackend backend, int maxQuads) {
+    this.backend = backend;
+    this.maxQuads = maxQuads;
+    this.staging = new float[maxQuads * FLOATS_PER_QUAD];
+    this.quadSlot = new int[maxQuads];
+    this.vertices = BufferUtils.createFloatBuffer(maxQuads * FLOATS_PER_QUAD);
+  }
+
+  // Tint applied to every quad submitted after this call
+  public void setColor(float r, float g, float b, float a) {
+    this.r = r;
+    this.g = g;
+    this.b = b;
+    this.a = a;
+  }
+
+  public void resetColor() {
+    setColor(1f, 1f, 1f, 1f);
+  }
+
+  public void draw(Texture tex, float cx, float cy, float w, float h) {
+    drawRegion(tex, cx, cy, w, h, 0f, 0f, 1f, 1f);
+  }
+
+  public void draw(TextureRegion region, float cx, float cy, float w, float h) {
+    drawRegion(region.texture, cx, cy, w, h, region.u0, region.v0, region.u1, region.v1);
+  }
+
+  // Angle in degrees, counter-clockwise
+  public void drawRotated(Texture tex, float cx, float cy, float w, float h, float angleDeg) {
+    double rad = Math.toRadians(angleDeg);
+    drawRotated(tex, cx, cy, w, h, (float) Math.cos(rad), (float) Math.sin(rad));
+  }
+
+  // Rotation given directly as (cos, sin), e.g. a normalised velocity
+  public void drawRotated(Texture tex, float cx, float cy, float w, float h, float cos, float sin) {
+    drawRotated(tex, cx, cy, w, h, cos, sin, 0f, 0f, 1f, 1f);
+  }
+
+  public void drawRotated(TextureRegion region, float cx, float cy, float w, float h,
+      float cos, float sin) {
+    drawRotated(region.texture, cx, cy, w, h, cos, sin, region.u0, region.v0, region.u1, region.v1);
+  }
+
+  private void drawRotated(Texture tex, float cx, float cy, float w, float h, float cos, float sin,
+      float u0, float v0, float u1, float v1) {
+    float hw = w / 2f;
+    float hh = h / 2f;
+
+    // Corners (-hw,-hh) (hw,-hh) (hw,hh) (-hw,hh) rotated about the centre
+    float ax = hw * cos, ay = hw * sin;
+    float bx = -hh * sin, by = hh * cos;
+
+    int o = beginQuad(tex);
+    vertex(o, cx - ax - bx, cy - ay - by, u0, v0);
+    vertex(o + FLOATS_PER_VERTEX, cx + ax - bx, cy + ay - by, u1, v0);
+    vertex(o + FLOATS_PER_VERTEX * 2, cx + ax + bx, cy + ay + by, u1, v1);
+    vertex(o + FLOATS_PER_VERTEX * 3, cx - ax + bx, cy - ay + by, u0, v1);
+  }
+
+  public void drawRegion(Texture tex, float cx, float cy, float w, float h,
+      float u0, float v0, float u1, float v1) {
+    int o = beginQuad(tex);
+    writeQuad(staging, o, cx, cy, w, h, u0, v0, u1, v1, r, g, b, a);
+  }
+
+  // Draws prebuilt geometry from a static buffer of the backend. Pending
+  // quads are flushed first so draw order is kept.
+  public void drawStatic(int buffer, Texture tex, int quadCount) {
+    flush();
+    backend.drawStaticQuads(buffer, tex, quadCount);
+    drawCalls++;
+  }
+
+  public RenderBackend backend() {
+    return backend;
+  }
+
+  // Writes one axis-aligned quad in batch vertex layout at dst[o]
+  public static void writeQuad(float[] dst, int o, float cx, float cy, float w, float h,
+      float u0, float v0, float u1, float v1, float r, float g, float b, float a) {
+    float hw = w / 2f;
+    float hh = h / 2f;
+
+    putVertex(dst, o, cx - hw, cy - hh, u0, v0, r, g, b, a);
+    putVertex(dst, o + FLOATS_PER_VERTEX, cx + hw, cy - hh, u1, v0, r, g, b, a);
+    putVertex(dst, o + FLOATS_PER_VERTEX * 2, cx + hw, cy + hh, u1, v1, r, g, b, a);
+    putVertex(dst, o + FLOATS_PER_VERTEX * 3, cx - hw, cy + hh, u0, v1, r, g, b, a);
+  }
+
+  private static void putVertex(float[] dst, int o, float x, float y, float u, float v,
+      float r, float g, float b, float a) {
+    dst[o] = x;
+    dst[o + 1] = y;
+    dst[o + 2] = u;
+    dst[o + 3] = v;
+    dst[o + 4] = r;
+    dst[o + 5] = g;
+    dst[o + 6] = b;
+    dst[o + 7] = a;
+  }
+
+  public void flush() {
+    if (quadCount == 0)
+      return;
+
+    // Counting sort of quads by texture slot, stable within a slot
+    int start = 0;
+    for (int s = 0; s < textureCount; s++) {
+      slotStart[s] = start;
+      start += slotQuads[s];
+    }
+
+    for (int q = 0; q < quadCount; q++) {
+      int dst = slotStart[quadSlot[q]]++;
+      vertices.put(dst * FLOATS_PER_QUAD, staging, q * FLOATS_PER_QUAD, FLOATS_PER_QUAD);
+    }
+
+    backend.upload(vertices, quadCount * FLOATS_PER_QUAD);
+
+    int first = 0;
+    for (int s = 0; s < textureCount; s++) {
+      backend.drawQuads(textures[s], first, slotQuads[s]);
+      first += slotQuads[s];
+      drawCalls++;
+
+      textures[s] = null;
+      slotQuads[s] = 0;
+    }
+    backend.endFlush();
+
+    textureCount = 0;
+    quadCount = 0;
+  }
+
+  // Draw calls issued since the last call, for stats/overlays
+  public int takeDrawCalls() {
+    int n = drawCalls;
+    drawCalls = 0;
+    return n;
+  }
+
+  public void dispose() {
+    backend.dispose();
+  }
+
+  private int beginQuad(Texture tex) {
+    if (quadCount == maxQuads)
+      flush();
+
+    int slot = slotOf(tex);
+    if (slot < 0) {
+      if (textureCount == MAX_TEXTURES)
+        flush();
+      slot = textureCount++;
+      textures[slot] = tex;
+    }
+
+    quadSlot[quadCount] = slot;
+    slotQuads[slot]++;
+    return quadCount++ * FLOATS_PER_QUAD;
+  }
+
+  private int slotOf(Texture tex) {
+    for (int s = 0; s < textureCount; s++) {
+      if (textures[s] == tex)
+        return s;
+    }
+    return -1;
+  }
+
+  private void vertex(int o, float x, float y, float u, float v) {
+    putVertex(staging, o, x, y, u, v, r, g, b, a);
+  }
+}
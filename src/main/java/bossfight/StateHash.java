@@ -0,0 +1,43 @@
+package bossfight;
+
+// 64-bit FNV-1a over the raw bits of simulation values. Used to compare game
+// state between a recording and its replay, so it must see every field that
+// can affect later ticks.
+public final class StateHash {
+
+    public static final long SEED = 0xcbf29ce484222325L;
+    private static final long PRIME = 0x100000001b3L;
+
+    private StateHash() {
+    }
+
+    public static long mix(long h, int v) {
+        for (int i = 0; i < 4; i++) {
+            h ^= v & 0xFF;
+            h *= PRIME;
+            v >>>= 8;
+        }
+        return h;
+    }
+
+    public static long mix(long h, long v) {
+        return mix(mix(h, (int) v), (int) (v >>> 32));
+    }
+
+    public static long mix(long h, float v) {
+        return mix(h, Float.floatToRawIntBits(v));
+    }
+
+    public static long mix(long h, double v) {
+        return mix(h, Double.doubleToRawLongBits(v));
+    }
+
+    public static long mix(long h, boolean v) {
+        return mix(h, v ? 1 : 0);
+    }
+
+    // Folded to 32 bits for the replay log
+    public static int fold(long h) {
+        return (int) (h ^ (h >>> 32));
+    }
+}
@@ -0,0 +1,117 @@
+package bossfight;
+
+import java.nio.ByteBuffer;
+
+import org.lwjgl.stb.STBEasyFont;
+import org.lwjgl.system.MemoryUtil;
+
+// stb_easy_font text drawn through the sprite batch.
+//
+// Generated glyph quads are kept per (text, x, y) in a small fixed set of
+// slots, so text that doesn't change between frames costs a lookup and some
+// quad submissions: no stb call, no buffer allocation. A miss regenerates
+// into the least recently used slot using one shared scratch buffer.
+public class TextCache {
+
+    // stb_easy_font writes 4 vertices of 16 bytes per quad and uses at most
+    // about 270 bytes per character
+    private static final int BYTES_PER_CHAR = 270;
+    private static final int VERTEX_BYTES = 16;
+
+    private static class Entry {
+        String text;
+        float x, y;
+        // cx, cy, w, h per quad, in stb's Y-down pixel space
+        float[] quads = new float[64];
+        int quadCount;
+        long lastUsed;
+    }
+
+    private final Entry[] entries;
+    private long frame = 0;
+
+    private ByteBuffer scratch = MemoryUtil.memAlloc(64 * BYTES_PER_CHAR);
+
+    public TextCache(int slots) {
+        entries = new Entry[slots];
+        for (int i = 0; i < slots; i++)
+            entries[i] = new Entry();
+    }
+
+    // Text at (x, y) in pixels, with (0,0) at the top-left of a screen
+    // screenH pixels tall. white is a solid atlas region.
+    public void draw(SpriteBatch batch, TextureRegion white, float x, float y, String text,
+            float r, float g, float b, int screenH) {
+        if (text == null || text.isEmpty())
+            return;
+
+        Entry e = lookup(x, y, text);
+
+        batch.setColor(r, g, b, 1f);
+        float[] q = e.quads;
+        for (int i = 0, o = 0; i < e.quadCount; i++, o += 4) {
+            // Flip into the game's Y-up projection
+            batch.draw(white, q[o], screenH - q[o + 1], q[o + 2], q[o + 3]);
+        }
+        batch.resetColor();
+    }
+
+    // Advances the LRU clock; call once per frame
+    public void endFrame() {
+        frame++;
+    }
+
+    public void dispose() {
+        MemoryUtil.memFree(scratch);
+        scratch = null;
+    }
+
+    private Entry lookup(float x, float y, String text) {
+        Entry oldest = entries[0];
+        for (Entry e : entries) {
+            if (e.x == x && e.y == y && text.equals(e.text)) {
+                e.lastUsed = frame;
+                return e;
+            }
+            if (e.lastUsed < oldest.lastUsed)
+                oldest = e;
+        }
+
+        generate(oldest, x, y, text);
+        oldest.lastUsed = frame;
+        return oldest;
+    }
+
+    private void generate(Entry e, float x, float y, String text) {
+        int needed = text.length() * BYTES_PER_CHAR;
+        if (scratch.capacity() < needed) {
+            MemoryUtil.memFree(scratch);
+            scratch = MemoryUtil.memAlloc(Integer.highestOneBit(needed) << 1);
+        }
+        scratch.clear();
+
+        int quads = STBEasyFont.stb_easy_font_print(x, y, text, null, scratch);
+
+        if (e.quads.length < quads * 4)
+            e.quads = new float[Integer.highestOneBit(quads * 4) << 1];
+
+        // Each quad is an axis-aligned rectangle: keep its centre and size
+        float[] q = e.quads;
+        for (int i = 0; i < quads; i++) {
+            int v0 = i * 4 * VERTEX_BYTES;
+            int v2 = v0 + 2 * VERTEX_BYTES;
+            float x0 = scratch.getFloat(v0), y0 = scratch.getFloat(v0 + 4);
+            float x1 = scratch.getFloat(v2), y1 = scratch.getFloat(v2 + 4);
+
+            q[i * 4] = (x0 + x1) / 2f;
+            q[i * 4 + 1] = (y0 + y1) / 2f;
+            q[i * 4 + 2] = Math.abs(x1 - x0);
+            q[i * 4 + 3] = Math.abs(y1 - y0);
+        }
+
+        e.text = text;
+        e.x = x;
+        e.y = y;
+        e.quadCount = quads;
+    }
+}
@@ -38,17 +38,36 @@ public class Texture {
 
     width = w.get(0);
     height = h.get(0);
+    id = upload(image, width, height);
 
-    id = glGenTextures();
+    STBImage.stbi_image_free(image);
+  }
+
+  // Uploads already decoded RGBA8 pixels, bottom row first
+  public Texture(ByteBuffer rgba, int width, int height) {
+    this.width = width;
+    this.height = height;
+    this.id = upload(rgba, width, height);
+  }
+
+  // Wraps an existing texture name without touching GL (or a fake one for
+  // the recording backend)
+  Texture(int id, int width, int height) {
+    this.id = id;
+    this.width = width;
+    this.height = height;
+  }
+
+  private static int upload(ByteBuffer rgba, int width, int height) {
+    int id = glGenTextures();
     glBindTexture(GL_TEXTURE_2D, id);
 
     glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MIN_FILTER, GL_NEAREST);
     glTexParameteri(GL_TEXTURE_2D, GL_TEXTURE_MAG_FILTER, GL_NEAREST);
 
     glTexImage2D(GL_TEXTURE_2D, 0, GL_RGBA8,
-        width, height, 0, GL_RGBA, GL_UNSIGNED_BYTE, image);
-
-    STBImage.stbi_image_free(image);
+        width, height, 0, GL_RGBA, GL_UNSIGNED_BYTE, rgba);
+    return id;
   }
 
   public void bind() {
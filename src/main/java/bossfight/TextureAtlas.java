@@ -0,0 +1,376 @@
+package bossfight;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+import org.lwjgl.system.MemoryUtil;
+
+// Every game image packed into one texture, looked up by name.
+//
+// Sprite sheets are registered as a whole ("tileset") and per cell
+// ("tileset/0", "tileset/1", ...). A solid "white" region is always added so
+// untinted rectangles and text can go through the same batch as sprites.
+// The packed pixels and region table are
+// written to a cache file; as long as no source file changed size or
+// modification time, later startups load that instead of decoding and
+// packing again. Either way the file work runs on AssetLoader threads and
+// only the final upload needs the GL thread.
+public class TextureAtlas {
+
+  // An image to pack. gridCols x gridRows > 1 registers the cells as well.
+  public record Source(String name, String path, int gridCols, int gridRows) {
+    public Source(String name, String path) {
+      this(name, path, 1, 1);
+    }
+  }
+
+  private static final int CACHE_MAGIC = 0x42464154; // "BFAT"
+  private static final int CACHE_VERSION = 2;
+
+  public static final String WHITE = "white";
+  private static final int WHITE_SIZE = 4;
+
+  // Gap between packed images so neighbours never bleed into each other
+  private static final int PADDING = 2;
+
+  public final Texture texture;
+  private final Map<String, TextureRegion> regions;
+
+  private TextureAtlas(Texture texture, Map<String, TextureRegion> regions) {
+    this.texture = texture;
+    this.regions = regions;
+  }
+
+  public TextureRegion region(String name) {
+    TextureRegion r = regions.get(name);
+    if (r == null)
+      throw new IllegalArgumentException("No atlas region: " + name);
+    return r;
+  }
+
+  // The cells of a sprite sheet source, in tile index order
+  public TextureRegion[] cells(String name, int count) {
+    TextureRegion[] cells = new TextureRegion[count];
+    for (int i = 0; i < count; i++)
+      cells[i] = region(name + "/" + i);
+    return cells;
+  }
+
+  public void dispose() {
+    texture.dispose();
+  }
+
+  // Loads from cacheFile if it matches the sources, otherwise builds and
+  // rewrites it. Needs a current GL context for the upload; blocks until
+  // done. Decoding still runs in parallel.
+  public static TextureAtlas load(List<Source> sources, Path cacheFile) {
+    AssetLoader loader = new AssetLoader();
+    try {
+      return loader.await(loadAsync(sources, cacheFile, loader));
+    } finally {
+      loader.shutdown();
+    }
+  }
+
+  // Same as load(), but the cache read, decoding (one task per source),
+  // packing and cache write all run on the loader's workers. Only the
+  // texture upload is left for the GL thread, via loader.pump().
+  public static CompletableFuture<TextureAtlas> loadAsync(List<Source> sources, Path cacheFile,
+      AssetLoader loader) {
+    CompletableFuture<Packed> packed = loader.async(() -> fingerprint(sources))
+        .thenCompose(fingerprint -> {
+          Packed cached = readCache(cacheFile, fingerprint);
+          if (cached != null)
+            return CompletableFuture.completedFuture(cached);
+          return build(sources, cacheFile, fingerprint, loader);
+        });
+
+    return loader.onGlThread(packed, p -> {
+      try {
+        Texture tex = new Texture(p.pixels, p.width, p.height);
+        return new TextureAtlas(tex, toRegions(tex, p.rects));
+      } finally {
+        MemoryUtil.memFree(p.allocation);
+      }
+    });
+  }
+
+  // Decodes every source in parallel, then packs and writes the cache once
+  // they're all in
+  private static CompletableFuture<Packed> build(List<Source> sources, Path cacheFile,
+      byte[] fingerprint, AssetLoader loader) {
+    List<CompletableFuture<DecodedImage>> decodes = new ArrayList<>();
+    for (Source s : sources)
+      decodes.add(loader.async(() -> DecodedImage.decode(s.path())));
+
+    return CompletableFuture.allOf(decodes.toArray(CompletableFuture<?>[]::new))
+        .handleAsync((done, failure) -> {
+          List<DecodedImage> images = new ArrayList<>();
+          for (CompletableFuture<DecodedImage> d : decodes) {
+            if (!d.isCompletedExceptionally())
+              images.add(d.join());
+          }
+          try {
+            if (failure != null)
+              throw failure instanceof CompletionException ce ? ce : new CompletionException(failure);
+
+            Packed p = pack(sources, images);
+            try {
+              writeCache(cacheFile, fingerprint, p);
+            } catch (IOException e) {
+              System.err.println("Could not write atlas cache " + cacheFile + ": " + e.getMessage());
+            }
+            return p;
+          } finally {
+            for (DecodedImage img : images)
+              img.free();
+          }
+        }, loader.workers());
+  }
+
+  // -----------------------------
+  // PACKING
+  // -----------------------------
+
+  // Pixel rectangle of a region inside the atlas
+  record Rect(int x, int y, int w, int h) {
+  }
+
+  // Pixels ready to upload. allocation is what to free afterwards: the
+  // pixels themselves, or the whole cache file they were sliced from.
+  private record Packed(ByteBuffer pixels, ByteBuffer allocation, int width, int height,
+      Map<String, Rect> rects) {
+  }
+
+  // source is null for the generated white block
+  private record Image(Source source, ByteBuffer pixels, int w, int h) {
+  }
+
+  // decoded[i] is sources[i]. Frees nothing it was given.
+  private static Packed pack(List<Source> sources, List<DecodedImage> decoded) {
+    List<Image> images = new ArrayList<>();
+    ByteBuffer white = null;
+    try {
+      for (int i = 0; i < sources.size(); i++) {
+        DecodedImage d = decoded.get(i);
+        images.add(new Image(sources.get(i), d.pixels(), d.width(), d.height()));
+      }
+
+      white = MemoryUtil.memAlloc(WHITE_SIZE * WHITE_SIZE * 4);
+      for (int i = 0; i < white.capacity(); i++)
+        white.put(i, (byte) 0xFF);
+      images.add(new Image(null, white, WHITE_SIZE, WHITE_SIZE));
+
+      // Shelf packing: tallest first, rows of images left to right
+      Integer[] order = new Integer[images.size()];
+      for (int i = 0; i < order.length; i++)
+        order[i] = i;
+      Arrays.sort(order, (a, b) -> Integer.compare(images.get(b).h, images.get(a).h));
+
+      long area = 0;
+      int widest = 0;
+      for (Image img : images) {
+        area += (long) (img.w + PADDING) * (img.h + PADDING);
+        widest = Math.max(widest, img.w + PADDING);
+      }
+      int atlasW = Integer.highestOneBit(Math.max(widest, (int) Math.ceil(Math.sqrt(area))) - 1) << 1;
+
+      Rect[] placed = new Rect[images.size()];
+      int x = 0, y = 0, shelfH = 0;
+      for (int i : order) {
+        Image img = images.get(i);
+        if (x + img.w + PADDING > atlasW) {
+          x = 0;
+          y += shelfH;
+          shelfH = 0;
+        }
+        placed[i] = new Rect(x, y, img.w, img.h);
+        x += img.w + PADDING;
+        shelfH = Math.max(shelfH, img.h + PADDING);
+      }
+      int atlasH = y + shelfH;
+
+      ByteBuffer pixels = MemoryUtil.memCalloc(atlasW * atlasH * 4);
+
+      // Region table in source order, cells right after their sheet
+      Map<String, Rect> rects = new LinkedHashMap<>();
+      for (int i = 0; i < images.size(); i++) {
+        Image img = images.get(i);
+        Rect r = placed[i];
+        for (int row = 0; row < img.h; row++) {
+          pixels.put(((r.y + row) * atlasW + r.x) * 4, img.pixels, row * img.w * 4, img.w * 4);
+        }
+
+        Source s = img.source;
+        if (s == null) {
+          // Only sample the middle, well away from the edges
+          rects.put(WHITE, new Rect(r.x + 1, r.y + 1, WHITE_SIZE - 2, WHITE_SIZE - 2));
+          continue;
+        }
+
+        rects.put(s.name(), r);
+        if (s.gridCols() * s.gridRows() > 1) {
+          int cw = img.w / s.gridCols(), ch = img.h / s.gridRows();
+          for (int c = 0; c < s.gridCols() * s.gridRows(); c++) {
+            rects.put(s.name() + "/" + c,
+                new Rect(r.x + (c % s.gridCols()) * cw, r.y + (c / s.gridCols()) * ch, cw, ch));
+          }
+        }
+      }
+      return new Packed(pixels, pixels, atlasW, atlasH, rects);
+    } finally {
+      if (white != null)
+        MemoryUtil.memFree(white);
+    }
+  }
+
+  private static Map<String, TextureRegion> toRegions(Texture tex, Map<String, Rect> rects) {
+    Map<String, TextureRegion> regions = new LinkedHashMap<>();
+    float invW = 1f / tex.width, invH = 1f / tex.height;
+    for (Map.Entry<String, Rect> e : rects.entrySet()) {
+      Rect r = e.getValue();
+      regions.put(e.getKey(), new TextureRegion(tex,
+          r.x * invW, r.y * invH, (r.x + r.w) * invW, (r.y + r.h) * invH, r.w, r.h));
+    }
+    return regions;
+  }
+
+  // -----------------------------
+  // CACHE FILE
+  // -----------------------------
+  //
+  // int magic, int version, fingerprint (length-prefixed),
+  // int width, int height, int regionCount,
+  // regionCount x (UTF name, int x, int y, int w, int h),
+  // width * height * 4 bytes of RGBA pixels
+
+  // What the cache depends on: every source's name, path, grid, size and
+  // modification time
+  private static byte[] fingerprint(List<Source> sources) {
+    try {
+      ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      DataOutputStream out = new DataOutputStream(bytes);
+      out.writeInt(sources.size());
+      for (Source s : sources) {
+        Path p = Path.of(s.path());
+        out.writeUTF(s.name());
+        out.writeUTF(s.path());
+        out.writeInt(s.gridCols());
+        out.writeInt(s.gridRows());
+        out.writeLong(Files.size(p));
+        out.writeLong(Files.getLastModifiedTime(p).toMillis());
+      }
+      return bytes.toByteArray();
+    } catch (IOException e) {
+      throw new RuntimeException("Failed to read atlas sources", e);
+    }
+  }
+
+  private static void writeCache(Path file, byte[] fingerprint, Packed packed) throws IOException {
+    ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+    DataOutputStream out = new DataOutputStream(bytes);
+    out.writeInt(CACHE_MAGIC);
+    out.writeInt(CACHE_VERSION);
+    out.writeInt(fingerprint.length);
+    out.write(fingerprint);
+    out.writeInt(packed.width);
+    out.writeInt(packed.height);
+    out.writeInt(packed.rects.size());
+    for (Map.Entry<String, Rect> e : packed.rects.entrySet()) {
+      Rect r = e.getValue();
+      out.writeUTF(e.getKey());
+      out.writeInt(r.x);
+      out.writeInt(r.y);
+      out.writeInt(r.w);
+      out.writeInt(r.h);
+    }
+
+    if (file.getParent() != null)
+      Files.createDirectories(file.getParent());
+
+    // Write to a temp file and move it in, so a crash never leaves a torn cache
+    Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+    try (FileChannel ch = FileChannel.open(tmp, StandardOpenOption.CREATE,
+        StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+      writeFully(ch, ByteBuffer.wrap(bytes.toByteArray()));
+      writeFully(ch, packed.pixels.duplicate().clear());
+    }
+    Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  private static void writeFully(FileChannel ch, ByteBuffer buf) throws IOException {
+    while (buf.hasRemaining())
+      ch.write(buf);
+  }
+
+  // Returns null on a missing, stale or unreadable cache. Touches no GL
+  // state; the pixels are a slice of the file buffer, freed after upload.
+  private static Packed readCache(Path file, byte[] fingerprint) {
+    if (!Files.isRegularFile(file))
+      return null;
+
+    ByteBuffer data = null;
+    try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = ch.size();
+      if (size > Integer.MAX_VALUE)
+        return null;
+
+      data = MemoryUtil.memAlloc((int) size).order(ByteOrder.BIG_ENDIAN);
+      while (data.hasRemaining()) {
+        if (ch.read(data) < 0)
+          return null;
+      }
+      data.flip();
+
+      if (data.getInt() != CACHE_MAGIC || data.getInt() != CACHE_VERSION)
+        return null;
+
+      byte[] stored = new byte[data.getInt()];
+      data.get(stored);
+      if (!Arrays.equals(stored, fingerprint))
+        return null;
+
+      int width = data.getInt();
+      int height = data.getInt();
+      int regionCount = data.getInt();
+
+      Map<String, Rect> rects = new LinkedHashMap<>();
+      for (int i = 0; i < regionCount; i++) {
+        byte[] name = new byte[data.getShort() & 0xFFFF];
+        data.get(name);
+        rects.put(new String(name, StandardCharsets.UTF_8),
+            new Rect(data.getInt(), data.getInt(), data.getInt(), data.getInt()));
+      }
+
+      if (data.remaining() != width * height * 4)
+        return null;
+
+      // Upload straight from the file buffer, no copy
+      Packed packed = new Packed(data.slice(), data, width, height, rects);
+      data = null;
+      return packed;
+    } catch (IOException | RuntimeException e) {
+      System.err.println("Ignoring atlas cache " + file + ": " + e);
+      return null;
+    } finally {
+      if (data != null)
+        MemoryUtil.memFree(data);
+    }
+  }
+}
@@ -0,0 +1,43 @@
+package bossfight;
+
+// A rectangle of a texture, in UV space, plus its size in pixels
+public class TextureRegion {
+
+  public final Texture texture;
+  public final float u0, v0, u1, v1;
+  public final int width, height;
+
+  public TextureRegion(Texture texture, float u0, float v0, float u1, float v1,
+      int width, int height) {
+    this.texture = texture;
+    this.u0 = u0;
+    this.v0 = v0;
+    this.u1 = u1;
+    this.v1 = v1;
+    this.width = width;
+    this.height = height;
+  }
+
+  // The whole texture
+  public TextureRegion(Texture texture) {
+    this(texture, 0f, 0f, 1f, 1f, texture.width, texture.height);
+  }
+
+  // Splits a sprite sheet into cols x rows cells. Cell i is column i % cols,
+  // row i / cols, with row 0 at v0 (the bottom of a flipped-on-load image).
+  public static TextureRegion[] split(TextureRegion sheet, int cols, int rows) {
+    TextureRegion[] cells = new TextureRegion[cols * rows];
+    float du = (sheet.u1 - sheet.u0) / cols;
+    float dv = (sheet.v1 - sheet.v0) / rows;
+
+    for (int i = 0; i < cells.length; i++) {
+      int tx = i % cols;
+      int ty = i / cols;
+      float u0 = sheet.u0 + tx * du;
+      float v0 = sheet.v0 + ty * dv;
+      cells[i] = new TextureRegion(sheet.texture, u0, v0, u0 + du, v0 + dv,
+          sheet.width / cols, sheet.height / rows);
+    }
+    return cells;
+  }
+}
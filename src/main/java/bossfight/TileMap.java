@@ -1,58 +1,193 @@
 package bossfight;
 
+import java.nio.FloatBuffer;
+import java.util.Arrays;
+
+import org.lwjgl.BufferUtils;
+
+// Draws a WallGrid: walls with tile 1 of the tileset, floor with tile 0.
+// It has no layout of its own; sync() copies in whatever the grid holds.
 public class TileMap {
 
-  private final int cols, rows;
+  static final int FLOOR = 0, WALL = 1;
+
+  // Tiles are grouped into CHUNK x CHUNK blocks. Each chunk owns a fixed,
+  // contiguous range of the static vertex buffer, so editing a tile only
+  // rebuilds and re-uploads that one chunk.
+  static final int CHUNK = 16;
+
+  private int cols, rows;
   private final int tileSize;
-  private final int[][] tiles;
+  private int[][] tiles;
+
+  // Region per tile index, all on one texture; null until graphics exist
+  private TextureRegion[] tileRegions;
+
+  private int chunkCols, chunkRows;
+  private int[] chunkFirstQuad;
+  private boolean[] chunkDirty;
+  private boolean anyDirty = true;
+  private int quadCount;
+
+  // WallGrid.version() at the last sync, -1 before the first
+  private long synced = -1;
+
+  // GPU copy of the whole map; created on first render
+  private RenderBackend backend;
+  private int buffer = -1;
+
+  // Scratch space for rebuilding one chunk
+  private final float[] chunkVertices = new float[CHUNK * CHUNK * SpriteBatch.FLOATS_PER_QUAD];
+  private final FloatBuffer chunkUpload = BufferUtils.createFloatBuffer(chunkVertices.length);
+
+  public TileMap(WallGrid walls) {
+    this.tileSize = walls.tileSize();
+    layout(walls.cols(), walls.rows());
+    copyTiles(walls);
+  }
+
+  // Tiles needed to cover a span of pixels
+  public static int tilesFor(int pixels, int tileSize) {
+    return Math.max(1, (int) Math.ceil(pixels / (float) tileSize));
+  }
+
+  // Matches the map to walls, which must have this map's tile size. Free
+  // when nothing changed since the last sync; otherwise only the chunks
+  // holding changed tiles are rebuilt, or the whole map if walls was
+  // re-laid out at another size.
+  public void sync(WallGrid walls) {
+    if (walls.version() == synced)
+      return;
+
+    if (walls.cols() != cols || walls.rows() != rows) {
+      layout(walls.cols(), walls.rows());
+      dispose();
+    }
+    copyTiles(walls);
+  }
+
+  private void copyTiles(WallGrid walls) {
+    for (int y = 0; y < rows; y++) {
+      for (int x = 0; x < cols; x++)
+        setTile(x, y, walls.solid(x, y) ? WALL : FLOOR);
+    }
+    synced = walls.version();
+  }
 
-  private final Texture tileset;
-  private final int tilesetCols, tilesetRows;
+  public int cols() {
+    return cols;
+  }
+
+  public int rows() {
+    return rows;
+  }
 
-  public TileMap(Texture tileset, int cols, int rows,
-      int tileSize, int tilesetCols, int tilesetRows) {
-    this.tileset = tileset;
+  private void layout(int cols, int rows) {
     this.cols = cols;
     this.rows = rows;
-    this.tileSize = tileSize;
-    this.tilesetCols = tilesetCols;
-    this.tilesetRows = tilesetRows;
 
+    // All floor until sync() fills it in
     tiles = new int[rows][cols];
 
-    // Border walls
-    for (int y = 0; y < rows; y++) {
-      for (int x = 0; x < cols; x++) {
-        boolean border = (x == 0 || y == 0 || x == cols - 1 || y == rows - 1);
-        tiles[y][x] = border ? 1 : 0;
-      }
+    chunkCols = (cols + CHUNK - 1) / CHUNK;
+    chunkRows = (rows + CHUNK - 1) / CHUNK;
+    chunkFirstQuad = new int[chunkCols * chunkRows];
+    chunkDirty = new boolean[chunkCols * chunkRows];
+
+    // Edge chunks are smaller, so offsets are a running sum of real tile counts
+    int quads = 0;
+    for (int c = 0; c < chunkFirstQuad.length; c++) {
+      chunkFirstQuad[c] = quads;
+      quads += chunkWidth(c % chunkCols) * chunkHeight(c / chunkCols);
+      chunkDirty[c] = true;
     }
+    quadCount = quads;
+    anyDirty = true;
   }
 
-  public void render() {
+  // Tile index i is drawn with regions[i]. Rebuilds the whole map.
+  public void setTileset(TextureRegion[] regions) {
+    tileRegions = regions;
+    Arrays.fill(chunkDirty, true);
+    anyDirty = true;
+  }
 
-    float tu = 1f / tilesetCols;
-    float tv = 1f / tilesetRows;
+  public int getTile(int x, int y) {
+    return tiles[y][x];
+  }
 
-    for (int y = 0; y < rows; y++) {
-      for (int x = 0; x < cols; x++) {
+  private void setTile(int x, int y, int index) {
+    if (tiles[y][x] == index)
+      return;
 
-        int index = tiles[y][x];
-        int tx = index % tilesetCols;
-        int ty = index / tilesetCols;
+    tiles[y][x] = index;
+    chunkDirty[(y / CHUNK) * chunkCols + x / CHUNK] = true;
+    anyDirty = true;
+  }
+
+  // One draw call for the whole map. Only chunks touched since the last
+  // frame are rebuilt.
+  public void render(SpriteBatch batch) {
+    RenderBackend b = batch.backend();
+    if (b != backend) {
+      // First render, or a new renderer: upload everything
+      dispose();
+      backend = b;
+      buffer = b.createStaticBuffer(quadCount * SpriteBatch.FLOATS_PER_QUAD);
+      Arrays.fill(chunkDirty, true);
+      anyDirty = true;
+    }
 
-        float u0 = tx * tu;
-        float v0 = ty * tv;
-        float u1 = u0 + tu;
-        float v1 = v0 + tv;
+    if (anyDirty) {
+      for (int c = 0; c < chunkDirty.length; c++) {
+        if (chunkDirty[c]) {
+          uploadChunk(c);
+          chunkDirty[c] = false;
+        }
+      }
+      anyDirty = false;
+    }
+
+    batch.drawStatic(buffer, tileRegions[0].texture, quadCount);
+  }
+
+  public void dispose() {
+    if (backend != null && buffer != -1)
+      backend.deleteStaticBuffer(buffer);
+    backend = null;
+    buffer = -1;
+  }
+
+  private void uploadChunk(int c) {
+    int x0 = (c % chunkCols) * CHUNK;
+    int y0 = (c / chunkCols) * CHUNK;
+    int x1 = x0 + chunkWidth(c % chunkCols);
+    int y1 = y0 + chunkHeight(c / chunkCols);
+
+    int o = 0;
+    for (int y = y0; y < y1; y++) {
+      for (int x = x0; x < x1; x++) {
+
+        TextureRegion t = tileRegions[tiles[y][x]];
 
         float cx = x * tileSize + tileSize / 2f;
         float cy = y * tileSize + tileSize / 2f;
 
-        SpriteRenderer.drawSubSprite(
-            tileset, cx, cy, tileSize, tileSize,
-            u0, v0, u1, v1);
+        SpriteBatch.writeQuad(chunkVertices, o, cx, cy, tileSize, tileSize,
+            t.u0, t.v0, t.u1, t.v1, 1f, 1f, 1f, 1f);
+        o += SpriteBatch.FLOATS_PER_QUAD;
       }
     }
+
+    chunkUpload.put(0, chunkVertices, 0, o);
+    backend.updateStaticBuffer(buffer, chunkFirstQuad[c] * SpriteBatch.FLOATS_PER_QUAD, chunkUpload, o);
+  }
+
+  private int chunkWidth(int chunkX) {
+    return Math.min(CHUNK, cols - chunkX * CHUNK);
+  }
+
+  private int chunkHeight(int chunkY) {
+    return Math.min(CHUNK, rows - chunkY * CHUNK);
   }
 }
@@ -0,0 +1,47 @@
+package bossfight;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Lock-free hand-off of whole frames from one writer thread to one reader.
+//
+// Three slots: the writer fills back(), publish() swaps it with the shared
+// middle slot, and latest() swaps the reader's front slot with the middle one
+// if something newer was published. Neither side ever waits, and a slot is
+// never written while the reader holds it. Frames the reader was too slow
+// to see are simply skipped.
+public class TripleBuffer<T> {
+
+    // Set on the middle index when it holds a frame the reader hasn't taken
+    private static final int FRESH = 4;
+
+    private final Object[] slots;
+    private final AtomicInteger middle = new AtomicInteger(1);
+
+    // Owned by the writer / the reader respectively
+    private int back = 0;
+    private int front = 2;
+
+    public TripleBuffer(T a, T b, T c) {
+        slots = new Object[] { a, b, c };
+    }
+
+    // Writer side: the slot to fill next
+    @SuppressWarnings("unchecked")
+    public T back() {
+        return (T) slots[back];
+    }
+
+    // Writer side: makes back() the newest frame and hands over a free slot
+    public void publish() {
+        back = middle.getAndSet(back | FRESH) & 3;
+    }
+
+    // Reader side: the newest published frame. Stays valid until the next
+    // call to latest().
+    @SuppressWarnings("unchecked")
+    public T latest() {
+        if ((middle.get() & FRESH) != 0)
+            front = middle.getAndSet(front) & 3;
+        return (T) slots[front];
+    }
+}
@@ -0,0 +1,118 @@
+package bossfight;
+
+import jdk.incubator.vector.FloatVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// SIMD versions of the BulletKernel loops. Only touch this class through
+// BulletKernel, which checks that the incubator module is present first.
+final class VectorBulletKernel {
+
+    private static final VectorSpecies<Float> F = FloatVector.SPECIES_PREFERRED;
+
+    private VectorBulletKernel() {
+    }
+
+    static void integrate(BulletPool pool, int from, int to, float dt,
+            float minX, float maxX, float minY, float maxY) {
+        float[] x = pool.x, y = pool.y, vx = pool.vx, vy = pool.vy;
+        boolean[] alive = pool.alive;
+
+        int i = from;
+        int bound = from + F.loopBound(to - from);
+        for (; i < bound; i += F.length()) {
+            FloatVector nx = FloatVector.fromArray(F, x, i)
+                    .add(FloatVector.fromArray(F, vx, i).mul(dt));
+            FloatVector ny = FloatVector.fromArray(F, y, i)
+                    .add(FloatVector.fromArray(F, vy, i).mul(dt));
+            nx.intoArray(x, i);
+            ny.intoArray(y, i);
+
+            VectorMask<Float> inside = nx.compare(VectorOperators.GE, minX)
+                    .and(nx.compare(VectorOperators.LE, maxX))
+                    .and(ny.compare(VectorOperators.GE, minY))
+                    .and(ny.compare(VectorOperators.LE, maxY));
+            VectorMask.fromArray(F, alive, i).and(inside).intoArray(alive, i);
+        }
+
+        BulletKernel.integrateScalar(pool, i, to, dt, minX, maxX, minY, maxY);
+    }
+
+    static int overlaps(BulletPool pool, boolean friendly,
+            float tx, float ty, float tw, float th, int[] hits) {
+        float[] x = pool.x, y = pool.y;
+        boolean[] alive = pool.alive, side = pool.friendly;
+        float limitX = Bullet.WIDTH + tw;
+        float limitY = Bullet.HEIGHT + th;
+        int n = pool.count;
+        int hitCount = 0;
+
+        int i = 0;
+        int bound = F.loopBound(n);
+        for (; i < bound; i += F.length()) {
+            VectorMask<Float> hit = FloatVector.fromArray(F, x, i).sub(tx).abs().mul(2f)
+                    .compare(VectorOperators.LT, limitX)
+                    .and(FloatVector.fromArray(F, y, i).sub(ty).abs().mul(2f)
+                            .compare(VectorOperators.LT, limitY))
+                    .and(VectorMask.fromArray(F, alive, i));
+
+            VectorMask<Float> sameSide = VectorMask.fromArray(F, side, i);
+            hit = friendly ? hit.and(sameSide) : hit.andNot(sameSide);
+
+            // Almost always empty; only walk the lanes when something hit
+            if (hit.anyTrue()) {
+                long bits = hit.toLong();
+                while (bits != 0) {
+                    hits[hitCount++] = i + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                }
+            }
+        }
+
+        return BulletKernel.overlapsScalar(pool, friendly, tx, ty, tw, th, i, n, hits, hitCount);
+    }
+
+    // BulletKernel.swept() across lanes, same operations in the same order,
+    // for bullets [0, n)
+    static int sweeps(BulletPool pool, boolean friendly, float dt,
+            float tx, float ty, float tw, float th, float tdx, float tdy, int n, int[] hits) {
+        float[] x = pool.x, y = pool.y, vx = pool.vx, vy = pool.vy;
+        boolean[] alive = pool.alive, side = pool.friendly;
+        float hx = (Bullet.WIDTH + tw) * 0.5f;
+        float hy = (Bullet.HEIGHT + th) * 0.5f;
+        int hitCount = 0;
+
+        int i = 0;
+        int bound = F.loopBound(n);
+        for (; i < bound; i += F.length()) {
+            FloatVector dx = FloatVector.fromArray(F, vx, i).mul(dt).sub(tdx);
+            FloatVector dy = FloatVector.fromArray(F, vy, i).mul(dt).sub(tdy);
+            FloatVector sx = FloatVector.fromArray(F, x, i).sub(tx).sub(dx);
+            FloatVector sy = FloatVector.fromArray(F, y, i).sub(ty).sub(dy);
+
+            FloatVector ax = FloatVector.broadcast(F, -hx).sub(sx).div(dx);
+            FloatVector bx = FloatVector.broadcast(F, hx).sub(sx).div(dx);
+            FloatVector ay = FloatVector.broadcast(F, -hy).sub(sy).div(dy);
+            FloatVector by = FloatVector.broadcast(F, hy).sub(sy).div(dy);
+
+            FloatVector enter = ax.min(bx).max(ay.min(by)).max(0f);
+            FloatVector exit = ax.max(bx).min(ay.max(by)).min(1f);
+
+            VectorMask<Float> hit = enter.compare(VectorOperators.LT, exit)
+                    .and(VectorMask.fromArray(F, alive, i));
+            VectorMask<Float> sameSide = VectorMask.fromArray(F, side, i);
+            hit = friendly ? hit.and(sameSide) : hit.andNot(sameSide);
+
+            if (hit.anyTrue()) {
+                long bits = hit.toLong();
+                while (bits != 0) {
+                    hits[hitCount++] = i + Long.numberOfTrailingZeros(bits);
+                    bits &= bits - 1;
+                }
+            }
+        }
+
+        return BulletKernel.sweepsScalar(pool, friendly, dt, tx, ty, tw, th, tdx, tdy, i, n, hits, hitCount);
+    }
+}
@@ -0,0 +1,55 @@
+package bossfight;
+
+// The part of the world on screen, shared by simulation and rendering.
+//
+// The simulation culls bullets that leave the visible area by more than
+// CULL_MARGIN; rendering projects onto the same rectangle and skips sprites
+// that don't touch it. The camera sits at (x, y), the bottom-left corner;
+// the arena is the window, so today that is always (0, 0).
+public class Viewport {
+
+    // How far outside the visible area a bullet may go before it is dropped
+    public static final float CULL_MARGIN = 64f;
+
+    float x, y;
+    int width, height;
+
+    public Viewport(int width, int height) {
+        this.width = Math.max(1, width);
+        this.height = Math.max(1, height);
+    }
+
+    public void resize(int width, int height) {
+        this.width = Math.max(1, width);
+        this.height = Math.max(1, height);
+    }
+
+    public void copyFrom(Viewport other) {
+        x = other.x;
+        y = other.y;
+        width = other.width;
+        height = other.height;
+    }
+
+    public float cullMinX() {
+        return x - CULL_MARGIN;
+    }
+
+    public float cullMaxX() {
+        return x + width + CULL_MARGIN;
+    }
+
+    public float cullMinY() {
+        return y - CULL_MARGIN;
+    }
+
+    public float cullMaxY() {
+        return y + height + CULL_MARGIN;
+    }
+
+    // Whether a w x h box centred on (cx, cy) touches the visible area
+    public boolean isVisible(float cx, float cy, float w, float h) {
+        return cx + w / 2f > x && cx - w / 2f < x + width
+                && cy + h / 2f > y && cy - h / 2f < y + height;
+    }
+}
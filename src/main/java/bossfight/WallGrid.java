@@ -0,0 +1,133 @@
+package bossfight;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Which tiles of the arena are solid, packed one bit per tile, for the
+// simulation to collide bullets against. This is the only copy of the
+// layout: set() is how tiles change, FrameSnapshot carries a copy to the
+// render side and TileMap.sync draws whatever it holds, so the walls you
+// see are the walls bullets hit.
+//
+// Lookups are a multiply, a floor and one bit test. Anything outside the
+// grid counts as solid, so a bullet that skips clean over the border wall
+// in one tick is still caught on the far side.
+public class WallGrid {
+
+    private final int tileSize;
+    private final float invTileSize;
+    private int cols, rows;
+    private long[] bits = new long[0];
+
+    // Renewed by every change to the layout, so a copy can tell it's
+    // stale. Drawn from one counter, so no two layouts share a version.
+    private static final AtomicLong VERSIONS = new AtomicLong();
+    private long version = VERSIONS.incrementAndGet();
+
+    // Times a bullet ricochets off walls before one absorbs it; 0 means
+    // bullets despawn on the first wall they touch
+    int bounces = Integer.getInteger("bossfight.wallBounces", 0);
+
+    public WallGrid(int tileSize) {
+        this.tileSize = tileSize;
+        this.invTileSize = 1f / tileSize;
+    }
+
+    // Lays the grid out to cover a screen size: a border wall, plus any
+    // interior tiles set() made solid that still fit. The border itself is
+    // re-laid, so gaps cut in the old one close. Same size is a no-op.
+    public void fit(int pixelWidth, int pixelHeight) {
+        int c = TileMap.tilesFor(pixelWidth, tileSize);
+        int r = TileMap.tilesFor(pixelHeight, tileSize);
+        if (c == cols && r == rows)
+            return;
+
+        long[] old = bits;
+        int oldCols = cols, oldRows = rows;
+        cols = c;
+        rows = r;
+        bits = new long[(c * r + 63) >>> 6];
+
+        for (int y = 0; y < rows; y++) {
+            for (int x = 0; x < cols; x++) {
+                boolean edited = x < oldCols && y < oldRows && !border(x, y, oldCols, oldRows)
+                        && bit(old, y * oldCols + x);
+                int i = y * cols + x;
+                if (border(x, y, cols, rows) || edited)
+                    bits[i >>> 6] |= 1L << i;
+            }
+        }
+        version = VERSIONS.incrementAndGet();
+    }
+
+    // Makes this the same layout as other (not its bounces setting).
+    // Doesn't allocate once this has held a grid as large.
+    public void copyFrom(WallGrid other) {
+        if (other.tileSize != tileSize)
+            throw new IllegalArgumentException("tile size " + other.tileSize + " != " + tileSize);
+
+        int words = (other.cols * other.rows + 63) >>> 6;
+        if (bits.length < words)
+            bits = new long[words];
+        System.arraycopy(other.bits, 0, bits, 0, words);
+        cols = other.cols;
+        rows = other.rows;
+        version = other.version;
+    }
+
+    // The default arena: a one-tile wall round the edge
+    static boolean border(int x, int y, int cols, int rows) {
+        return x == 0 || y == 0 || x == cols - 1 || y == rows - 1;
+    }
+
+    // Tile coordinates, inside the grid
+    public void set(int x, int y, boolean solid) {
+        int i = y * cols + x;
+        long before = bits[i >>> 6];
+        if (solid)
+            bits[i >>> 6] |= 1L << i;
+        else
+            bits[i >>> 6] &= ~(1L << i);
+        if (bits[i >>> 6] != before)
+            version = VERSIONS.incrementAndGet();
+    }
+
+    // Tile coordinates; outside the grid is solid
+    public boolean solid(int x, int y) {
+        if (x < 0 || y < 0 || x >= cols || y >= rows)
+            return true;
+        return bit(bits, y * cols + x);
+    }
+
+    private static boolean bit(long[] bits, int i) {
+        return (bits[i >>> 6] & (1L << i)) != 0;
+    }
+
+    // Tile under a point in pixels
+    public int tileX(float px) {
+        return (int) Math.floor(px * invTileSize);
+    }
+
+    public int tileY(float py) {
+        return (int) Math.floor(py * invTileSize);
+    }
+
+    public boolean solidAt(float px, float py) {
+        return solid(tileX(px), tileY(py));
+    }
+
+    public int cols() {
+        return cols;
+    }
+
+    public int rows() {
+        return rows;
+    }
+
+    public int tileSize() {
+        return tileSize;
+    }
+
+    public long version() {
+        return version;
+    }
+}
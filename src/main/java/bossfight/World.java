@@ -0,0 +1,215 @@
+package bossfight;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Every entity in the fight: the players, the boss and whatever it summons
+// (see Prefabs), stored by archetype. Bullets and particles have pools of
+// their own.
+//
+// An entity is an int id. Its data lives in the archetype matching its
+// component mask; systems loop over the archetypes that have the components
+// they need. Killed entities stay in place until removeDead() so indices
+// are stable while systems run.
+public class World {
+
+    private final List<Archetype> archetypes = new ArrayList<>();
+    private final int initialCapacity;
+
+    // id -> archetype position in the list and index inside it
+    private int[] archetypeOf = new int[64];
+    private int[] indexOf = new int[64];
+
+    private int[] freeIds = new int[64];
+    private int freeCount = 0;
+    private int nextId = 0;
+    private int live = 0;
+
+    public World(int initialCapacity) {
+        this.initialCapacity = initialCapacity;
+    }
+
+    // New entity with the given components, all zeroed. Fill in its columns
+    // through archetypeOf(id) / indexOf(id).
+    public int spawn(int mask) {
+        int a = archetypeIndex(mask);
+
+        int id;
+        if (freeCount > 0) {
+            id = freeIds[--freeCount];
+        } else {
+            id = nextId++;
+            if (id == archetypeOf.length) {
+                archetypeOf = Arrays.copyOf(archetypeOf, id * 2);
+                indexOf = Arrays.copyOf(indexOf, id * 2);
+            }
+        }
+
+        archetypeOf[id] = a;
+        indexOf[id] = archetypes.get(a).add(id);
+        live++;
+        return id;
+    }
+
+    public Archetype archetypeOf(int id) {
+        return archetypes.get(archetypeOf[id]);
+    }
+
+    public int indexOf(int id) {
+        return indexOf[id];
+    }
+
+    // Position of one entity, for code that follows a particular one
+    public float x(int id) {
+        return archetypeOf(id).x[indexOf[id]];
+    }
+
+    public float y(int id) {
+        return archetypeOf(id).y[indexOf[id]];
+    }
+
+    // Marks the entity for removal at the end of the tick
+    public void kill(int id) {
+        archetypeOf(id).alive[indexOf[id]] = false;
+    }
+
+    // True if this hit killed it
+    public boolean damage(int id, float amount) {
+        Archetype a = archetypeOf(id);
+        int i = indexOf[id];
+        if (!a.alive[i] || a.hp == null)
+            return false;
+
+        a.hp[i] -= amount;
+        if (a.hp[i] <= 0)
+            a.alive[i] = false;
+        return !a.alive[i];
+    }
+
+    public void removeDead() {
+        for (Archetype a : archetypes) {
+            int i = 0;
+            while (i < a.count) {
+                if (a.alive[i]) {
+                    i++;
+                    continue;
+                }
+
+                int deadId = a.id[i];
+                int moved = a.removeAt(i);
+                if (moved != -1)
+                    indexOf[moved] = i;
+
+                if (freeCount == freeIds.length)
+                    freeIds = Arrays.copyOf(freeIds, freeCount * 2);
+                freeIds[freeCount++] = deadId;
+                live--;
+            }
+        }
+    }
+
+    // Live entities, including ones killed this tick
+    public int size() {
+        return live;
+    }
+
+    public int archetypeCount() {
+        return archetypes.size();
+    }
+
+    public Archetype archetype(int k) {
+        return archetypes.get(k);
+    }
+
+    // Drops every entity but keeps the archetype storage for reuse
+    public void clear() {
+        for (Archetype a : archetypes) {
+            for (int i = 0; i < a.count; i++)
+                a.alive[i] = false;
+        }
+        removeDead();
+        freeCount = 0;
+        nextId = 0;
+    }
+
+    // Makes this world an exact copy of other: same entities, ids, free ids
+    // and archetype order. Reuses this world's storage, so once it has seen
+    // a world as big as other it doesn't allocate.
+    void copyFrom(World other) {
+        int n = other.archetypes.size();
+        for (int k = 0; k < n; k++) {
+            Archetype src = other.archetypes.get(k);
+            if (k == archetypes.size())
+                archetypes.add(new Archetype(src.mask, Math.max(initialCapacity, src.count)));
+            else if (archetypes.get(k).mask != src.mask)
+                archetypes.set(k, new Archetype(src.mask, Math.max(initialCapacity, src.count)));
+            archetypes.get(k).copyFrom(src);
+        }
+        while (archetypes.size() > n)
+            archetypes.remove(archetypes.size() - 1);
+
+        if (archetypeOf.length < other.nextId) {
+            archetypeOf = new int[other.archetypeOf.length];
+            indexOf = new int[other.indexOf.length];
+        }
+        System.arraycopy(other.archetypeOf, 0, archetypeOf, 0, other.nextId);
+        System.arraycopy(other.indexOf, 0, indexOf, 0, other.nextId);
+
+        if (freeIds.length < other.freeCount)
+            freeIds = new int[other.freeIds.length];
+        System.arraycopy(other.freeIds, 0, freeIds, 0, other.freeCount);
+
+        freeCount = other.freeCount;
+        nextId = other.nextId;
+        live = other.live;
+    }
+
+    long hashState(long h) {
+        for (Archetype a : archetypes) {
+            h = StateHash.mix(h, a.mask);
+            h = StateHash.mix(h, a.count);
+            for (int i = 0; i < a.count; i++) {
+                h = StateHash.mix(h, a.id[i]);
+                if (a.x != null) {
+                    h = StateHash.mix(h, a.x[i]);
+                    h = StateHash.mix(h, a.y[i]);
+                }
+                if (a.vx != null) {
+                    h = StateHash.mix(h, a.vx[i]);
+                    h = StateHash.mix(h, a.vy[i]);
+                }
+                if (a.hp != null)
+                    h = StateHash.mix(h, a.hp[i]);
+                if (a.aiTimer != null) {
+                    h = StateHash.mix(h, a.aiTimer[i]);
+                    h = StateHash.mix(h, a.aiPattern[i]);
+                    h = StateHash.mix(h, a.aiVolley[i]);
+                }
+                if (a.slot != null) {
+                    h = StateHash.mix(h, a.lives[i]);
+                    h = StateHash.mix(h, a.invuln[i]);
+                    h = StateHash.mix(h, a.shootTimer[i]);
+                }
+                if (a.phase != null) {
+                    h = StateHash.mix(h, a.phase[i].ordinal());
+                    h = StateHash.mix(h, a.state[i].ordinal());
+                    h = StateHash.mix(h, a.stateTimer[i]);
+                    h = StateHash.mix(h, a.attackIndex[i]);
+                    for (int v : a.volleys[i])
+                        h = StateHash.mix(h, v);
+                }
+            }
+        }
+        return h;
+    }
+
+    private int archetypeIndex(int mask) {
+        for (int k = 0; k < archetypes.size(); k++) {
+            if (archetypes.get(k).mask == mask)
+                return k;
+        }
+        archetypes.add(new Archetype(mask, initialCapacity));
+        return archetypes.size() - 1;
+    }
+}